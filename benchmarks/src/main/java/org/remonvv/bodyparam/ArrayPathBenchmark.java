@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Compares selecting a single field of every array element with a wildcard
+ * path to binding the entire array and selecting the field afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ArrayPathBenchmark {
+
+	private static final TypeFactory TYPE_FACTORY = TypeFactory.defaultInstance();
+
+	@Param({ "10", "100", "1000" })
+	int items;
+
+	@Param({ "10", "50" })
+	int width;
+
+	private final BodyParamReader bodyParamReader = new BodyParamReader();
+	private final JsonRequestBodyMapper requestBodyMapper = new JsonRequestBodyMapper();
+
+	private byte[] requestBody;
+	private BodyParamPathTrie itemsTrie;
+	private BodyParamPathTrie skusTrie;
+
+	@Setup
+	public void setup() throws IOException {
+		List<Map<String, Object>> items = new ArrayList<>();
+
+		for (int i = 0; i < this.items; i++) {
+			Map<String, Object> item = new LinkedHashMap<>(BenchmarkPayloads.createBody(this.width, 1));
+			item.put("sku", "sku-" + i);
+			items.add(item);
+		}
+
+		this.requestBody = BenchmarkPayloads.toJson(Map.of("items", items));
+
+		JavaType itemsType = TYPE_FACTORY.constructCollectionType(List.class,
+				TYPE_FACTORY.constructMapType(Map.class, String.class, Object.class));
+		JavaType skusType = TYPE_FACTORY.constructCollectionType(List.class, String.class);
+
+		this.itemsTrie = new BodyParamPathTrie(List.of(compileBodyParam("items", itemsType)));
+		this.skusTrie = new BodyParamPathTrie(List.of(compileBodyParam("items[*].sku", skusType)));
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public List<Object> bindArrayAndSelect() throws IOException {
+		try (JsonParser parser = this.requestBodyMapper.createParser(this.requestBody)) {
+			Object items = this.bodyParamReader.streamBodyParams(parser, this.itemsTrie, this.requestBodyMapper)
+					.values().iterator().next();
+
+			return ((List<Map<String, Object>>) ((BodyParamReader.BoundValue) items).getValue()).stream()
+					.map(item -> item.get("sku"))
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Benchmark
+	public Map<CompiledBodyParam, Object> streamWildcardPath() throws IOException {
+		try (JsonParser parser = this.requestBodyMapper.createParser(this.requestBody)) {
+			return this.bodyParamReader.streamBodyParams(parser, this.skusTrie, this.requestBodyMapper);
+		}
+	}
+
+	@Benchmark
+	public Map<CompiledBodyParam, Object> readWildcardPath() {
+		return this.bodyParamReader.readBodyParams(this.skusTrie,
+				this.requestBodyMapper.mapRequestBody(this.requestBody));
+	}
+
+	private CompiledBodyParam compileBodyParam(String paramPath, JavaType paramType) {
+		return new CompiledBodyParam(null, paramPath, this.bodyParamReader.compileParamPath(paramPath),
+				NameMatchingMode.EXACT, paramType, Optional.empty(), true);
+	}
+}
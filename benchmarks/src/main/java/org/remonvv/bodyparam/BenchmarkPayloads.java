@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+/**
+ * Generates request bodies of a given width (number of fields per object) and
+ * depth (number of nested objects leading to the target value).
+ */
+final class BenchmarkPayloads {
+
+	static final String TARGET_VALUE = "target-value";
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+	private static final XmlMapper XML_MAPPER = XmlMapper.builder().build();
+
+	private BenchmarkPayloads() {
+		/* prevent instantiation */
+	}
+
+	static Map<String, Object> createBody(int width, int depth) {
+		Map<String, Object> target = createObject(width);
+		target.put("target", TARGET_VALUE);
+
+		Map<String, Object> body = target;
+
+		for (int level = depth - 1; level >= 0; level--) {
+			Map<String, Object> parent = createObject(width);
+			parent.put("level" + level, body);
+			body = parent;
+		}
+
+		return body;
+	}
+
+	static String targetPath(int depth) {
+		StringBuilder path = new StringBuilder();
+
+		for (int level = 0; level < depth; level++)
+			path.append("level").append(level).append('.');
+
+		return path.append("target").toString();
+	}
+
+	static byte[] toJson(Map<String, Object> body) throws JsonProcessingException {
+		return JSON_MAPPER.writeValueAsBytes(body);
+	}
+
+	static byte[] toXml(Map<String, Object> body) throws JsonProcessingException {
+		return XML_MAPPER.writer().withRootName("root").writeValueAsBytes(body);
+	}
+
+	private static Map<String, Object> createObject(int width) {
+		Map<String, Object> object = new LinkedHashMap<>();
+
+		for (int i = 0; i < width; i++)
+			object.put("field_" + i, i % 2 == 0 ? "value " + i : i);
+
+		return object;
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyParamArgumentResolverBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	int width;
+
+	@Param({ "TREE", "STREAMING" })
+	ParseStrategy parseStrategy;
+
+	private BodyParamArgumentResolver resolver;
+	private MethodParameter[] parameters;
+	private byte[] requestBody;
+
+	@Setup
+	public void setup() throws IOException, NoSuchMethodException {
+		this.resolver = new BodyParamArgumentResolver(new BodyParamReader(), this.parseStrategy,
+				new BodyParamResolverSettings());
+		this.requestBody = BenchmarkPayloads.toJson(BenchmarkPayloads.createBody(this.width, 2));
+
+		Method method = BenchmarkController.class.getDeclaredMethod("handle", String.class, Integer.class,
+				String.class);
+		this.parameters = new MethodParameter[method.getParameterCount()];
+
+		for (int i = 0; i < this.parameters.length; i++)
+			this.parameters[i] = new SynthesizingMethodParameter(method, i);
+	}
+
+	@Benchmark
+	public void resolveArguments(Blackhole blackhole) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(this.requestBody);
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+
+		for (MethodParameter parameter : this.parameters)
+			blackhole.consume(this.resolver.resolveArgument(parameter, null, webRequest, null));
+	}
+
+	static class BenchmarkController {
+
+		void handle(@BodyParam("field_0") String first, @BodyParam("level0.field_1") Integer nested,
+				@BodyParam("level0.level1.target") String target) {
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyParamReaderBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	int width;
+
+	@Param({ "1", "4", "8" })
+	int depth;
+
+	private final BodyParamReader bodyParamReader = new BodyParamReader();
+	private final JsonRequestBodyMapper requestBodyMapper = new JsonRequestBodyMapper();
+
+	private String paramPath;
+	private Map<String, Object> requestBodyMap;
+	private byte[] requestBody;
+	private BodyParamPathTrie trie;
+
+	@Setup
+	public void setup() throws IOException {
+		this.paramPath = BenchmarkPayloads.targetPath(this.depth);
+		this.requestBodyMap = BenchmarkPayloads.createBody(this.width, this.depth);
+		this.requestBody = BenchmarkPayloads.toJson(this.requestBodyMap);
+
+		CompiledBodyParam bodyParam = new CompiledBodyParam(null, this.paramPath,
+				this.bodyParamReader.compileParamPath(this.paramPath), NameMatchingMode.EXACT,
+				TypeFactory.defaultInstance().constructType(String.class), Optional.empty(), true);
+		this.trie = new BodyParamPathTrie(List.of(bodyParam));
+	}
+
+	@Benchmark
+	public Optional<Object> readDecodedBody() {
+		return this.bodyParamReader.readBodyParam(this.paramPath, String.class, this.requestBodyMap,
+				NameMatchingMode.EXACT, this.requestBodyMapper);
+	}
+
+	@Benchmark
+	public Optional<Object> decodeAndReadBody() {
+		return this.bodyParamReader.readBodyParam(this.paramPath, String.class,
+				this.requestBodyMapper.mapRequestBody(this.requestBody), NameMatchingMode.EXACT,
+				this.requestBodyMapper);
+	}
+
+	@Benchmark
+	public Map<CompiledBodyParam, Object> streamBody() throws IOException {
+		try (JsonParser parser = this.requestBodyMapper.createParser(this.requestBody)) {
+			return this.bodyParamReader.streamBodyParams(parser, this.trie);
+		}
+	}
+}
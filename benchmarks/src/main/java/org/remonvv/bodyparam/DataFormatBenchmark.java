@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.remonvv.bodyparam.mappers.AbstractJacksonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.CborRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.MessagePackRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.SmileRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+/**
+ * Compares decoding and streaming the same request bodies encoded as JSON, XML
+ * and in the supported binary data formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DataFormatBenchmark {
+
+	public enum DataFormat {
+		JSON(JsonMapper.builder().build(), new JsonRequestBodyMapper()),
+		CBOR(CBORMapper.builder().build(), new CborRequestBodyMapper()),
+		SMILE(SmileMapper.builder().build(), new SmileRequestBodyMapper()),
+		MSGPACK(new ObjectMapper(new MessagePackFactory()), new MessagePackRequestBodyMapper()),
+		XML(XmlMapper.builder().build(), new XmlRequestBodyMapper());
+
+		private final ObjectMapper encoder;
+		private final AbstractJacksonRequestBodyMapper requestBodyMapper;
+
+		DataFormat(ObjectMapper encoder, AbstractJacksonRequestBodyMapper requestBodyMapper) {
+			this.encoder = encoder;
+			this.requestBodyMapper = requestBodyMapper;
+		}
+	}
+
+	@Param({ "JSON", "CBOR", "SMILE", "MSGPACK", "XML" })
+	DataFormat dataFormat;
+
+	@Param({ "10", "100", "1000" })
+	int width;
+
+	@Param({ "1", "4" })
+	int depth;
+
+	private final BodyParamReader bodyParamReader = new BodyParamReader();
+
+	private byte[] requestBody;
+	private BodyParamPathTrie trie;
+
+	@Setup
+	public void setup() throws IOException {
+		String paramPath = BenchmarkPayloads.targetPath(this.depth);
+
+		this.requestBody = this.dataFormat.encoder
+				.writeValueAsBytes(BenchmarkPayloads.createBody(this.width, this.depth));
+
+		CompiledBodyParam bodyParam = new CompiledBodyParam(null, paramPath,
+				this.bodyParamReader.compileParamPath(paramPath), NameMatchingMode.EXACT,
+				TypeFactory.defaultInstance().constructType(String.class), Optional.empty(), true);
+		this.trie = new BodyParamPathTrie(List.of(bodyParam));
+	}
+
+	@Benchmark
+	public Map<String, Object> mapRequestBody() {
+		return this.dataFormat.requestBodyMapper.mapRequestBody(this.requestBody);
+	}
+
+	@Benchmark
+	public Map<CompiledBodyParam, Object> streamBody() throws IOException {
+		try (JsonParser parser = this.dataFormat.requestBodyMapper.createParser(this.requestBody)) {
+			return this.bodyParamReader.streamBodyParams(parser, this.trie,
+					(StreamingRequestBodyMapper) this.dataFormat.requestBodyMapper);
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NameMatchingBenchmark {
+
+	private static final String PARAM_PATH_PART = "customerId";
+
+	private static final String[] KEYS = {
+			"customerId", "customer_id", "CustomerId", "CUSTOMER-ID", "orderId", "order_id", "createdAt",
+			"created_at", "lineItems", "line_items", "shippingAddress", "billingAddress", "x", "id", "status",
+			"customer.identifier"
+	};
+
+	@Param({ "EXACT", "IGNORE_CASE", "IGNORE_CASE_AND_NON_ALPHA_NUMERIC", "IGNORE_CASE_FORMAT" })
+	NameMatchingMode nameMatchingMode;
+
+	@Benchmark
+	public void isNameMatching(Blackhole blackhole) {
+		for (String key : KEYS)
+			blackhole.consume(NameMatchingUtils.isNameMatching(key, PARAM_PATH_PART, this.nameMatchingMode));
+	}
+
+	@Benchmark
+	public void normalizeName(Blackhole blackhole) {
+		for (String key : KEYS)
+			blackhole.consume(NameMatchingUtils.normalizeName(key, this.nameMatchingMode));
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RequestBodyMapperBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	int width;
+
+	@Param({ "1", "4" })
+	int depth;
+
+	private final JsonRequestBodyMapper jsonRequestBodyMapper = new JsonRequestBodyMapper();
+	private final XmlRequestBodyMapper xmlRequestBodyMapper = new XmlRequestBodyMapper();
+
+	private byte[] jsonRequestBody;
+	private byte[] xmlRequestBody;
+
+	@Setup
+	public void setup() throws IOException {
+		Map<String, Object> requestBodyMap = BenchmarkPayloads.createBody(this.width, this.depth);
+
+		this.jsonRequestBody = BenchmarkPayloads.toJson(requestBodyMap);
+		this.xmlRequestBody = BenchmarkPayloads.toXml(requestBodyMap);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapJsonRequestBody() {
+		return this.jsonRequestBodyMapper.mapRequestBody(this.jsonRequestBody);
+	}
+
+	@Benchmark
+	public Map<String, Object> mapXmlRequestBody() {
+		return this.xmlRequestBodyMapper.mapRequestBody(this.xmlRequestBody);
+	}
+}
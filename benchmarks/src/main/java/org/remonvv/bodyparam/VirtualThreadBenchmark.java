@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Load test of the servlet argument resolver on as many platform threads as
+ * virtual threads, one per concurrent request. Request bodies arrive in chunks
+ * with a delay in between, like they would from a slow client, and are read
+ * when the lazy parameters are first accessed. The {@code synchronized} guard
+ * accesses them inside a monitor like lazy parameters used to, which pins a
+ * virtual thread to its carrier while it waits for the request body, the
+ * {@code lock} guard relies on the {@code ReentrantLock} of the lazy value.
+ * With platform threads both guards should perform the same. Run with
+ * {@code -jvmArgsAppend -Djdk.tracePinnedThreads=short} to see the pinned
+ * threads. Virtual threads require JDK 21 and are created reflectively so the
+ * benchmarks still build for older JDKs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VirtualThreadBenchmark {
+
+	private static final int CONCURRENT_REQUESTS = 1000;
+
+	private static final int CHUNK_SIZE = 1024;
+
+	private static final long CHUNK_DELAY_MILLIS = 10;
+
+	@Param({ "platform", "virtual" })
+	String threads;
+
+	@Param({ "lock", "synchronized" })
+	String guard;
+
+	@Param({ "TREE", "STREAMING" })
+	ParseStrategy parseStrategy;
+
+	private ExecutorService executor;
+	private BodyParamArgumentResolver resolver;
+	private MethodParameter[] parameters;
+	private byte[] requestBody;
+
+	@Setup
+	public void setup() throws Exception {
+		this.executor = this.threads.equals("virtual") ? newVirtualThreadPerTaskExecutor()
+				: Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+		this.resolver = new BodyParamArgumentResolver(new BodyParamReader(), this.parseStrategy,
+				new BodyParamResolverSettings());
+		this.requestBody = BenchmarkPayloads.toJson(BenchmarkPayloads.createBody(10, 2));
+
+		Method method = BenchmarkController.class.getDeclaredMethod("handle", Supplier.class, Supplier.class,
+				Supplier.class);
+		this.parameters = new MethodParameter[method.getParameterCount()];
+
+		for (int i = 0; i < this.parameters.length; i++)
+			this.parameters[i] = new SynthesizingMethodParameter(method, i);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Resolves the arguments of a number of concurrent requests, every request
+	 * being an operation.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(CONCURRENT_REQUESTS)
+	public void resolveArguments(Blackhole blackhole) throws Exception {
+		List<Future<Object>> results = new ArrayList<>(CONCURRENT_REQUESTS);
+
+		for (int i = 0; i < CONCURRENT_REQUESTS; i++)
+			results.add(this.executor.submit(this::resolveRequest));
+
+		for (Future<Object> result : results)
+			blackhole.consume(result.get());
+	}
+
+	private Object resolveRequest() throws Exception {
+		SlowClientRequest request = new SlowClientRequest(this.requestBody);
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+		Supplier<?>[] arguments = new Supplier<?>[this.parameters.length];
+
+		for (int i = 0; i < arguments.length; i++)
+			arguments[i] = (Supplier<?>) this.resolver.resolveArgument(this.parameters[i], null, webRequest, null);
+
+		// The first access reads the request body
+		Object lastValue = null;
+
+		for (Supplier<?> argument : arguments)
+			lastValue = this.guard.equals("synchronized") ? getSynchronized(argument) : argument.get();
+
+		return lastValue;
+	}
+
+	private static Object getSynchronized(Supplier<?> argument) {
+		synchronized (argument) {
+			return argument.get();
+		}
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Virtual threads require JDK 21 or later", e);
+		}
+	}
+
+	/**
+	 * Request of which the body arrives in chunks, every chunk taking
+	 * {@value #CHUNK_DELAY_MILLIS} milliseconds to arrive.
+	 */
+	static class SlowClientRequest extends MockHttpServletRequest {
+
+		private final ServletInputStream inputStream;
+
+		SlowClientRequest(byte[] content) {
+			super("POST", "/");
+			setContent(content);
+			this.inputStream = new SlowClientInputStream(content);
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			return this.inputStream;
+		}
+	}
+
+	static class SlowClientInputStream extends ServletInputStream {
+
+		private final ByteArrayInputStream content;
+
+		SlowClientInputStream(byte[] content) {
+			this.content = new ByteArrayInputStream(content);
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+
+			return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (this.content.available() == 0)
+				return -1;
+
+			try {
+				Thread.sleep(CHUNK_DELAY_MILLIS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+
+			return this.content.read(b, off, Math.min(len, CHUNK_SIZE));
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.content.available() == 0;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		// Reads block until the next chunk arrives, so the content is always ready
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			try {
+				readListener.onDataAvailable();
+				readListener.onAllDataRead();
+			} catch (IOException e) {
+				readListener.onError(e);
+			}
+		}
+	}
+
+	static class BenchmarkController {
+
+		void handle(@BodyParam("field_0") Supplier<String> first, @BodyParam("level0.field_1") Supplier<Integer> nested,
+				@BodyParam("level0.level1.target") Supplier<String> target) {
+		}
+	}
+}
@@ -0,0 +1,486 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.remonvv.bodyparam.BodyParamMetrics.Phase;
+import org.remonvv.bodyparam.BodyParamReader.BoundValue;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ValueConstants;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Shared base of the servlet and reactive {@code @BodyParam} argument
+ * resolvers. Compiles and caches the parameters of handler methods and turns
+ * extracted values into argument values, leaving reading the request body to
+ * the subclasses.
+ */
+abstract class AbstractBodyParamArgumentResolver {
+
+	private static final Log LOG = LogFactory.getLog(AbstractBodyParamArgumentResolver.class);
+
+	private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+	private final Map<MethodParameter, CompiledBodyParam> compiledBodyParams = new ConcurrentHashMap<>();
+
+	private final Map<CompiledBodyParam, BodyParamPathTrie> handlerMethodTries = new ConcurrentHashMap<>();
+
+	final BodyParamReader bodyParamReader;
+
+	final BodyParamMetrics metrics;
+
+	final RequestBodyMapperRegistry requestBodyMapperRegistry;
+
+	private final RequestBodyLimits requestBodyLimits;
+
+	private final NameMatcher defaultNameMatcher;
+
+	private final Map<Class<?>, NameMatcher> nameMatchers = new ConcurrentHashMap<>();
+
+	AbstractBodyParamArgumentResolver(BodyParamReader bodyParamReader, BodyParamResolverSettings settings) {
+		this.bodyParamReader = bodyParamReader;
+		this.metrics = settings.getMetrics();
+		this.requestBodyMapperRegistry = settings.getRequestBodyMapperRegistry();
+		this.requestBodyLimits = settings.getRequestBodyLimits();
+		this.defaultNameMatcher = NameMatcher.of(settings.getNameMatchingMode() == NameMatchingMode.DEFAULT
+				? NameMatching.DEFAULT_MODE
+				: settings.getNameMatchingMode());
+
+		for (NameMatcher nameMatcher : settings.getNameMatchers())
+			this.nameMatchers.putIfAbsent(nameMatcher.getClass(), nameMatcher);
+	}
+
+	public boolean supportsParameter(MethodParameter parameter) {
+		return parameter.hasParameterAnnotation(BodyParam.class);
+	}
+
+	/**
+	 * Compiles the {@code @BodyParam} parameters of the given handler methods and
+	 * prepares the request body mappers for their types, so that invalid
+	 * parameters fail at startup rather than at the first request and the first
+	 * requests do not pay for compilation.
+	 */
+	void prepareHandlerMethods(Collection<HandlerMethod> handlerMethods) {
+		for (HandlerMethod handlerMethod : handlerMethods) {
+			for (MethodParameter parameter : handlerMethod.getMethodParameters()) {
+				if (!supportsParameter(parameter))
+					continue;
+
+				parameter.initParameterNameDiscovery(PARAMETER_NAME_DISCOVERER);
+
+				try {
+					CompiledBodyParam bodyParam = getCompiledBodyParam(parameter);
+					JavaType valueType = bodyParam.isBatch() ? bodyParam.getRecordType() : bodyParam.getParamType();
+					getHandlerMethodTrie(bodyParam);
+
+					for (RequestBodyMapper requestBodyMapper : this.requestBodyMapperRegistry.getRequestBodyMappers())
+						requestBodyMapper.prepare(valueType);
+				} catch (IllegalArgumentException e) {
+					throw new IllegalStateException("Invalid @BodyParam parameter at index "
+							+ parameter.getParameterIndex() + " of handler method " + handlerMethod + ": "
+							+ e.getMessage(), e);
+				} catch (RuntimeException e) {
+					// Only parameters that are invalid fail the startup, internal errors are
+					// left to be reported when the parameter is first resolved
+					LOG.warn("Could not prepare @BodyParam parameter at index " + parameter.getParameterIndex()
+							+ " of handler method " + handlerMethod + ": " + e.getMessage(), e);
+				}
+			}
+		}
+	}
+
+	CompiledBodyParam getCompiledBodyParam(MethodParameter parameter) {
+		CompiledBodyParam bodyParam = this.compiledBodyParams.get(parameter);
+
+		// Parameters are compiled without holding a lock of the map, which would pin
+		// the carrier thread of a virtual thread waiting for it. A parameter that is
+		// compiled concurrently resolves to whichever plan was cached first.
+		if (bodyParam == null) {
+			bodyParam = compileBodyParam(parameter);
+
+			CompiledBodyParam cachedBodyParam = this.compiledBodyParams.putIfAbsent(parameter, bodyParam);
+
+			if (cachedBodyParam != null)
+				bodyParam = cachedBodyParam;
+		}
+
+		return bodyParam;
+	}
+
+	Object resolveValue(CompiledBodyParam bodyParam, MediaType mediaType, RequestBodyMapper requestBodyMapper,
+			Map<CompiledBodyParam, Object> bodyParamValues) {
+		// Values bound straight from the token stream already have the parameter type
+		Optional<Object> paramValueOptional = Optional.ofNullable(bodyParamValues.get(bodyParam))
+				.map(value -> value instanceof BoundValue ? ((BoundValue) value).getValue()
+						: convertValue(bodyParam, mediaType, requestBodyMapper, value));
+
+		if (paramValueOptional.isEmpty() && bodyParam.getDefaultValue().isPresent()) {
+			this.metrics.recordDefaultValue(getHandlerMethod(bodyParam), mediaType, bodyParam.getNameMatchingMode());
+			paramValueOptional = bodyParam.getDefaultValue();
+		}
+
+		// If a valid parameter value is required it either has to be in the request
+		// body or a default value should have been provided.
+		if (bodyParam.isRequired() && paramValueOptional.isEmpty()) {
+			this.metrics.recordMissingRequiredValue(getHandlerMethod(bodyParam), mediaType,
+					bodyParam.getNameMatchingMode());
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"Could not find any fields in request body matching parameter path " + bodyParam.getParamPath()
+							+ " using the name matching mode " + bodyParam.getNameMatchingMode());
+		}
+
+		// We can assume we either have a value provided, a default value provided or
+		// the value is optional (required
+		return paramValueOptional.orElse(null);
+	}
+
+	/**
+	 * Wraps the resolved value of a parameter in the {@code Optional} the
+	 * parameter is declared as, if any.
+	 */
+	static Object wrapValue(CompiledBodyParam bodyParam, Object value) {
+		return bodyParam.isOptional() ? Optional.ofNullable(value) : value;
+	}
+
+	/**
+	 * Decodes the entire request body. The limits on nesting depth and token count
+	 * can only be enforced for request body mappers that expose a parser.
+	 */
+	static Map<String, Object> mapRequestBody(RequestBodyMapper requestBodyMapper, byte[] requestBody,
+			RequestBodyLimits requestBodyLimits) {
+		if (!requestBodyLimits.limitsTokens() || !(requestBodyMapper instanceof StreamingRequestBodyMapper))
+			return requestBodyMapper.mapRequestBody(requestBody);
+
+		StreamingRequestBodyMapper streamingRequestBodyMapper = (StreamingRequestBodyMapper) requestBodyMapper;
+
+		try (JsonParser parser = requestBodyLimits.limit(streamingRequestBodyMapper.createParser(requestBody))) {
+			return streamingRequestBodyMapper.mapRequestBody(parser);
+		} catch (IOException e) {
+			RequestBodyLimits.throwIfExceeded(e);
+			throw new IllegalArgumentException("Request body is not valid and cannot be decoded");
+		}
+	}
+
+	private Object convertValue(CompiledBodyParam bodyParam, MediaType mediaType, RequestBodyMapper requestBodyMapper,
+			Object value) {
+		long startTime = System.nanoTime();
+
+		try {
+			ScalarConverter scalarConverter = bodyParam.getScalarConverter();
+			Object convertedValue = scalarConverter != null ? scalarConverter.fromValue(value) : null;
+
+			return convertedValue != null ? convertedValue
+					: requestBodyMapper.convertValue(bodyParam.getParamType(), value);
+		} finally {
+			this.metrics.recordPhase(Phase.CONVERT, getHandlerMethod(bodyParam), mediaType,
+					bodyParam.getNameMatchingMode(), System.nanoTime() - startTime);
+		}
+	}
+
+	private CompiledBodyParam compileBodyParam(MethodParameter parameter) {
+		BodyParam bodyParamAnnotation = parameter.getParameterAnnotation(BodyParam.class);
+
+		String paramPath = getParamPath(bodyParamAnnotation, parameter);
+		JavaType declaredType = TypeFactory.defaultInstance().constructType(parameter.getGenericParameterType());
+		JavaType paramType = CompiledBodyParam.getValueType(declaredType);
+
+		Optional<Object> defaultValue = Optional.of(bodyParamAnnotation.defaultValue())
+				.filter(s -> !s.equals(ValueConstants.DEFAULT_NONE))
+				.map(s -> stringToDefaultValue(paramType.getRawClass(), s));
+
+		// Parameters declared as Optional are never required
+		boolean required = bodyParamAnnotation.required() && defaultValue.isEmpty()
+				&& !CompiledBodyParam.isOptionalType(declaredType);
+
+		// Limits of the handler method override those of the controller, which
+		// override the application wide limits
+		RequestBodyLimits requestBodyLimits = this.requestBodyLimits.override(parameter);
+
+		CompiledBodyParam bodyParam = new CompiledBodyParam(parameter, paramPath,
+				CompiledBodyParam.isBatchType(declaredType) ? compileBatchParamPath(paramPath, parameter)
+						: this.bodyParamReader.compileParamPath(paramPath),
+				determineNameMatcher(parameter), declaredType, defaultValue, required, requestBodyLimits);
+
+		// Paths with a wildcard or slice select a list of values
+		if (bodyParam.isMultiValued() && !bodyParam.isBatch()
+				&& !(paramType.isCollectionLikeType() || paramType.isArrayType() || paramType.isJavaLangObject()))
+			throw new IllegalArgumentException("Path " + paramPath + " selects multiple values and cannot be bound to "
+					+ paramType.getRawClass().getName());
+
+		return bodyParam;
+	}
+
+	/**
+	 * Whether this resolver can bind {@code Stream} and {@code Iterator}
+	 * parameters, which requires reading the request body while the handler method
+	 * consumes the records.
+	 */
+	abstract boolean supportsBatchParams();
+
+	/**
+	 * Compiles the path of a batch parameter, which selects an array of which the
+	 * elements are the records, with or without a trailing {@code [*]}. The path
+	 * {@code [*]} selects the elements of a root array or the values of a sequence
+	 * of root values. Compiled paths always end with the wildcard.
+	 */
+	private List<BodyParamPathSegment> compileBatchParamPath(String paramPath, MethodParameter parameter) {
+		if (!supportsBatchParams())
+			throw new IllegalArgumentException("Parameter " + paramPath + " of type "
+					+ parameter.getParameterType().getName() + " is not supported by " + getClass().getSimpleName());
+
+		// The records are consumed after all arguments are resolved, so no other
+		// values can be read from the request body
+		for (int i = 0; i < parameter.getExecutable().getParameterCount(); i++)
+			if (i != parameter.getParameterIndex() && SynthesizingMethodParameter
+					.forExecutable(parameter.getExecutable(), i).hasParameterAnnotation(BodyParam.class))
+				throw new IllegalArgumentException("Parameter " + paramPath + " of type "
+						+ parameter.getParameterType().getName() + " must be the only @BodyParam parameter");
+
+		BodyParamPathSegment allElements = BodyParamPathSegment.slice(null, null);
+
+		if (paramPath.equals(allElements.toString()))
+			return List.of(allElements);
+
+		List<BodyParamPathSegment> paramPathSegments = new ArrayList<>(this.bodyParamReader.compileParamPath(paramPath));
+
+		if (paramPathSegments.get(paramPathSegments.size() - 1).equals(allElements))
+			paramPathSegments.remove(paramPathSegments.size() - 1);
+
+		if (!paramPathSegments.stream().allMatch(BodyParamPathSegment::isName))
+			throw new IllegalArgumentException("Path " + paramPath + " of parameter of type "
+					+ parameter.getParameterType().getName() + " must select all elements of an array");
+
+		paramPathSegments.add(allElements);
+
+		return paramPathSegments;
+	}
+
+	private NameMatcher determineNameMatcher(MethodParameter parameter) {
+		BodyParam bodyParamAnnotation = parameter.getParameterAnnotation(BodyParam.class);
+
+		// If name matching explicitly defined for parameter, use that
+		NameMatcher nameMatcher = getNameMatcher(bodyParamAnnotation.nameMatchingMode(),
+				bodyParamAnnotation.nameMatcher());
+
+		if (nameMatcher != null)
+			return nameMatcher;
+
+		// Check if method is annotated with name matching annotation first
+		if (parameter.hasMethodAnnotation(NameMatching.class)) {
+			nameMatcher = getNameMatcher(parameter.getMethodAnnotation(NameMatching.class));
+
+			if (nameMatcher != null)
+				return nameMatcher;
+		}
+
+		Class<?> declaringClass = parameter.getDeclaringClass();
+
+		// Finally, check if the type has a name matching annotation
+		if (declaringClass.isAnnotationPresent(NameMatching.class)) {
+			nameMatcher = getNameMatcher(declaringClass.getAnnotation(NameMatching.class));
+
+			if (nameMatcher != null)
+				return nameMatcher;
+		}
+
+		// No overrides found, so use the configured default
+		return this.defaultNameMatcher;
+	}
+
+	private NameMatcher getNameMatcher(NameMatching nameMatchingAnnotation) {
+		NameMatchingMode modeParam = nameMatchingAnnotation.mode();
+		NameMatchingMode valueParam = nameMatchingAnnotation.value();
+
+		return getNameMatcher(modeParam != NameMatchingMode.DEFAULT ? modeParam : valueParam,
+				nameMatchingAnnotation.matcher());
+	}
+
+	/**
+	 * Returns the name matcher configured by the given name matching mode and
+	 * custom name matcher class, or null if neither is configured.
+	 */
+	private NameMatcher getNameMatcher(NameMatchingMode nameMatchingMode,
+			Class<? extends NameMatcher> nameMatcherClass) {
+		if (nameMatcherClass == NameMatcher.class) {
+			if (nameMatchingMode == NameMatchingMode.CUSTOM)
+				throw new IllegalArgumentException("Name matching mode CUSTOM requires a name matcher");
+
+			return nameMatchingMode == NameMatchingMode.DEFAULT ? null : NameMatcher.of(nameMatchingMode);
+		}
+
+		if (nameMatchingMode != NameMatchingMode.DEFAULT && nameMatchingMode != NameMatchingMode.CUSTOM)
+			throw new IllegalArgumentException("Name matcher " + nameMatcherClass.getName()
+					+ " cannot be combined with name matching mode " + nameMatchingMode);
+
+		NameMatcher nameMatcher = this.nameMatchers.get(nameMatcherClass);
+
+		// Name matchers that are not registered as beans are instantiated once and
+		// shared by all parameters that use them
+		if (nameMatcher == null) {
+			nameMatcher = BeanUtils.instantiateClass(nameMatcherClass);
+
+			NameMatcher existingNameMatcher = this.nameMatchers.putIfAbsent(nameMatcherClass, nameMatcher);
+
+			if (existingNameMatcher != null)
+				nameMatcher = existingNameMatcher;
+		}
+
+		return nameMatcher;
+	}
+
+	BodyParamPathTrie getHandlerMethodTrie(CompiledBodyParam bodyParam) {
+		BodyParamPathTrie trie = this.handlerMethodTries.get(bodyParam);
+
+		if (trie == null) {
+			// Parameters that cannot be discovered from the method signature (e.g. ones
+			// that are only annotated on an interface method) are added to the trie of
+			// the parameter itself
+			Set<CompiledBodyParam> bodyParams = compileHandlerMethodBodyParams(bodyParam.getParameter());
+			bodyParams.add(bodyParam);
+
+			trie = new BodyParamPathTrie(bodyParams);
+
+			for (CompiledBodyParam handlerMethodBodyParam : bodyParams)
+				this.handlerMethodTries.putIfAbsent(handlerMethodBodyParam, trie);
+		}
+
+		return this.handlerMethodTries.get(bodyParam);
+	}
+
+	private Set<CompiledBodyParam> compileHandlerMethodBodyParams(MethodParameter parameter) {
+		Set<CompiledBodyParam> bodyParams = new HashSet<>();
+
+		for (int i = 0; i < parameter.getExecutable().getParameterCount(); i++) {
+			MethodParameter methodParameter = SynthesizingMethodParameter
+					.forExecutable(parameter.getExecutable(), i)
+					.withContainingClass(parameter.getContainingClass());
+
+			// Parameters without an explicit path are bound by their name
+			if (supportsParameter(methodParameter)) {
+				methodParameter.initParameterNameDiscovery(PARAMETER_NAME_DISCOVERER);
+				bodyParams.add(getCompiledBodyParam(methodParameter));
+			}
+		}
+
+		return bodyParams;
+	}
+
+	static Method getHandlerMethod(CompiledBodyParam bodyParam) {
+		return bodyParam.getParameter().getMethod();
+	}
+
+	private String getParamPath(BodyParam bodyParam, MethodParameter parameter) {
+		String definedArgumentPath = bodyParam.path();
+
+		// If no argument name is explicitly defined, attempt to use parameter name
+		if (definedArgumentPath.equals(ValueConstants.DEFAULT_NONE)) {
+			if (parameter.getParameterName() != null)
+				return parameter.getParameterName();
+			throw new IllegalArgumentException("Cannot resolve parameter path in controller method "
+					+ parameter.getMethod().getName() + " at index " + parameter.getParameterIndex()
+					+ " because no name was explicitly defined and javac \"-parameters\" compile option not used");
+		}
+
+		return definedArgumentPath;
+	}
+
+	static Object stringToDefaultValue(Class<?> clazz, String value) {
+		ScalarConverter scalarConverter = ScalarConverters.getConverter(clazz);
+
+		if (scalarConverter == null)
+			throw new IllegalArgumentException("Value \"" + value + "\" cannot be converted to an instance of " + clazz);
+
+		return scalarConverter.fromString(value);
+	}
+
+	/**
+	 * Value of a {@code Supplier} parameter, resolved when it is first accessed
+	 * and memoized for the rest of the request. Resolving the value may throw the
+	 * same exceptions resolving the argument would.
+	 */
+	static final class LazyValue implements Supplier<Object> {
+
+		// Resolving the value may block on reading the request body, which would pin
+		// the carrier thread of a virtual thread inside a synchronized block
+		private final Lock lock = new ReentrantLock();
+
+		private Supplier<Object> resolver;
+		private Object value;
+
+		LazyValue(Supplier<Object> resolver) {
+			this.resolver = resolver;
+		}
+
+		@Override
+		public Object get() {
+			this.lock.lock();
+
+			try {
+				if (this.resolver != null) {
+					this.value = this.resolver.get();
+					this.resolver = null;
+				}
+
+				return this.value;
+			} finally {
+				this.lock.unlock();
+			}
+		}
+	}
+
+	static final class ExtractedBodyParams {
+
+		final BodyParamPathTrie trie;
+		final Map<CompiledBodyParam, Object> values;
+
+		ExtractedBodyParams(BodyParamPathTrie trie, Map<CompiledBodyParam, Object> values) {
+			this.trie = trie;
+			this.values = values;
+		}
+	}
+}
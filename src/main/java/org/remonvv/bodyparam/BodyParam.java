@@ -81,12 +81,21 @@ public @interface BodyParam {
 	 */
 	NameMatchingMode nameMatchingMode() default DEFAULT;
 
+	/**
+	 * Custom name matcher used to match parameter names against field names in
+	 * the request body, instead of one of the built-in name matching modes.
+	 */
+	Class<? extends NameMatcher> nameMatcher() default NameMatcher.class;
+
 	/**
 	 * Defines the path to the value within the request body that is to be read and
 	 * injected as the controller method parameter value. If the request body is a
 	 * hierarchical data type (e.g. JSON or XML) any value in the hierarchy can be
 	 * addressed by defining a dot separated path (e.g. "parent.myvalue" would look
-	 * for a "myvalue" field in the root object "parent").
+	 * for a "myvalue" field in the root object "parent"). Array elements are
+	 * selected by index ("items[0].sku"), by slice ("items[1:3].sku") or all at
+	 * once ("items[*].sku"), the latter two require a collection or array
+	 * parameter.
 	 *
 	 * If no path value is specified the parameter name is used instead. Parameter
 	 * names are only available for code that is compiled with the "-parameters"
@@ -22,178 +22,372 @@
 package org.remonvv.bodyparam;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.servlet.ServletRequest;
 import javax.servlet.http.HttpServletRequest;
 
-import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
-import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+import org.remonvv.bodyparam.BodyParamMetrics.Phase;
+import org.remonvv.bodyparam.RequestBodyMapperRegistry.Selection;
 import org.springframework.core.MethodParameter;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
-import org.springframework.web.bind.annotation.ValueConstants;
 import org.springframework.web.bind.support.WebDataBinderFactory;
-import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
-import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.WebUtils;
 
-public class BodyParamArgumentResolver implements HandlerMethodArgumentResolver {
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
-	private final Map<MediaType, RequestBodyMapper> registeredRequestBodyMappers = Map.of(
-			MediaType.APPLICATION_JSON, new JsonRequestBodyMapper(),
-			MediaType.APPLICATION_XML, new XmlRequestBodyMapper());
+public class BodyParamArgumentResolver extends AbstractBodyParamArgumentResolver
+		implements HandlerMethodArgumentResolver {
 
-	private final BodyParamReader bodyParamReader;
+	static final String REQUEST_BODY_ATTRIBUTE = BodyParamArgumentResolver.class.getName()
+			+ ".REQUEST_BODY";
 
-	BodyParamArgumentResolver(BodyParamReader bodyParamReader) {
-		this.bodyParamReader = bodyParamReader;
+	private static final String PARSED_REQUEST_BODY_ATTRIBUTE_PREFIX = BodyParamArgumentResolver.class.getName()
+			+ ".PARSED_REQUEST_BODY.";
+
+	private static final String EXTRACTED_BODY_PARAMS_ATTRIBUTE_PREFIX = BodyParamArgumentResolver.class.getName()
+			+ ".EXTRACTED_BODY_PARAMS.";
+
+	private static final int MAX_INITIAL_BUFFER_SIZE = 64 * 1024;
+
+	private final ParseStrategy parseStrategy;
+
+	BodyParamArgumentResolver(BodyParamReader bodyParamReader, ParseStrategy parseStrategy,
+			BodyParamResolverSettings settings) {
+		super(bodyParamReader, settings);
+		this.parseStrategy = parseStrategy;
+	}
+
+	@Override
+	boolean supportsBatchParams() {
+		return true;
 	}
 
 	@Override
 	public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
 			NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
 
-		BodyParam bodyParamAnnotation = parameter.getParameterAnnotation(BodyParam.class);
+		long startTime = System.nanoTime();
+
+		CompiledBodyParam bodyParam = getCompiledBodyParam(parameter);
 		ServletWebRequest servletWebRequest = (ServletWebRequest) webRequest;
-		NameMatchingMode nameMatchingMode = determineNameMatchingMode(parameter);
 
-		MediaType mediaType = getMediaType(servletWebRequest);
+		Selection selection = selectRequestBodyMapper(servletWebRequest);
+		MediaType mediaType = selection.getMediaType();
+		RequestBodyMapper requestBodyMapper = selection.getRequestBodyMapper();
+
+		try {
+			if (bodyParam.isBatch())
+				return resolveRecords(servletWebRequest, bodyParam, mediaType, requestBodyMapper);
+
+			// The request body is not read for lazy parameters until the value of one of
+			// them is accessed, unless other parameters of the handler method need it
+			if (bodyParam.isLazy())
+				return new LazyValue(() -> {
+					try {
+						return resolveExtractedValue(servletWebRequest, bodyParam, mediaType, requestBodyMapper);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+
+			return resolveExtractedValue(servletWebRequest, bodyParam, mediaType, requestBodyMapper);
+		} finally {
+			this.metrics.recordPhase(Phase.RESOLVE, getHandlerMethod(bodyParam), mediaType,
+					bodyParam.getNameMatchingMode(), System.nanoTime() - startTime);
+		}
+	}
+
+	private Object resolveExtractedValue(ServletWebRequest webRequest, CompiledBodyParam bodyParam,
+			MediaType mediaType, RequestBodyMapper requestBodyMapper) throws IOException {
+		Map<CompiledBodyParam, Object> bodyParamValues = getExtractedBodyParams(webRequest, requestBodyMapper,
+				getHandlerMethodTrie(bodyParam), bodyParam, mediaType);
+
+		return wrapValue(bodyParam, resolveValue(bodyParam, mediaType, requestBodyMapper, bodyParamValues));
+	}
 
-		String requestBodyString = getBodyAsString(servletWebRequest);
-		String paramPath = getParamPath(bodyParamAnnotation, parameter);
-		Type paramType = parameter.getGenericParameterType();
+	/**
+	 * Resolves a batch parameter to an iterator or stream of which the records are
+	 * read from the request body as the handler method consumes them, rather than
+	 * reading the request body up front.
+	 */
+	private Object resolveRecords(ServletWebRequest webRequest, CompiledBodyParam bodyParam, MediaType mediaType,
+			RequestBodyMapper requestBodyMapper) throws IOException, HttpMediaTypeNotSupportedException {
+		// Data formats with repeated fields cannot express an array as a single value
+		if (!(requestBodyMapper instanceof StreamingRequestBodyMapper)
+				|| ((StreamingRequestBodyMapper) requestBodyMapper).hasRepeatedFields())
+			throw new HttpMediaTypeNotSupportedException(mediaType, getBatchMediaTypes());
+
+		StreamingRequestBodyMapper streamingRequestBodyMapper = (StreamingRequestBodyMapper) requestBodyMapper;
+		RequestBodyLimits requestBodyLimits = bodyParam.getRequestBodyLimits();
+		HttpServletRequest httpRequest = webRequest.getRequest();
+		byte[] requestBody = getCachedRequestBody(webRequest);
+		JsonParser parser;
+
+		// Records are streamed from the request body as it arrives, unless it was
+		// already read in which case the bytes that were read are streamed
+		if (requestBody != null) {
+			requestBodyLimits.checkBodySize(requestBody.length);
+			parser = requestBodyLimits.limit(streamingRequestBodyMapper.createParser(requestBody));
+		} else {
+			requestBodyLimits.checkBodySize(httpRequest.getContentLengthLong());
+			parser = requestBodyLimits.limit(streamingRequestBodyMapper
+					.createParser(requestBodyLimits.limit(httpRequest.getInputStream())));
+		}
 
-		Optional<Object> defaultValueOptional = Optional.of(bodyParamAnnotation.defaultValue())
-				.filter(s -> !s.equals(ValueConstants.DEFAULT_NONE))
-				.map(s -> stringToDefaultValue(parameter.getParameterType(), s));
+		BodyParamRecordIterator records;
 
-		Optional<Object> paramValueOptional = this.bodyParamReader
-				.readBodyParam(paramPath, paramType, requestBodyString,
-						nameMatchingMode, selectRequestBodyMapper(mediaType))
-				.map(Optional::of)
-				.orElse(defaultValueOptional);
+		try {
+			records = this.bodyParamReader.streamRecords(parser, bodyParam, streamingRequestBodyMapper);
+		} catch (IOException | IllegalArgumentException e) {
+			parser.close();
+			RequestBodyLimits.throwIfExceeded(e);
 
-		boolean required = bodyParamAnnotation.required() && defaultValueOptional.isEmpty();
+			if (e instanceof JsonProcessingException)
+				throw new IllegalArgumentException("Request body is not valid and cannot be decoded");
+			throw e;
+		}
 
-		// If a valid parameter value is required it either has to be in the request
-		// body or a default value should have been provided.
-		if (required && paramValueOptional.isEmpty())
-			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-					"Could not find any fields in request body matching parameter path " + paramPath
-							+ " using the name matching mode " + nameMatchingMode);
+		if (records == null) {
+			parser.close();
 
-		// We can assume we either have a value provided, a default value provided or
-		// the value is optional (required
-		return paramValueOptional.orElse(null);
+			// Rejects the request if the parameter is required, otherwise there are no
+			// records
+			resolveValue(bodyParam, mediaType, requestBodyMapper, Collections.emptyMap());
+
+			return bodyParam.getParamType().hasRawClass(Stream.class) ? Stream.empty() : Collections.emptyIterator();
+		}
+
+		return bodyParam.getParamType().hasRawClass(Stream.class) ? records.stream() : records;
 	}
 
-	@Override
-	public boolean supportsParameter(MethodParameter parameter) {
-		return parameter.hasParameterAnnotation(BodyParam.class);
+	private List<MediaType> getBatchMediaTypes() {
+		List<MediaType> batchMediaTypes = new ArrayList<>();
+
+		for (RequestBodyMapper requestBodyMapper : this.requestBodyMapperRegistry.getRequestBodyMappers())
+			if (requestBodyMapper instanceof StreamingRequestBodyMapper
+					&& !((StreamingRequestBodyMapper) requestBodyMapper).hasRepeatedFields())
+				batchMediaTypes.addAll(requestBodyMapper.getSupportedMediaTypes());
+
+		return batchMediaTypes;
 	}
 
-	private NameMatchingMode determineNameMatchingMode(MethodParameter parameter) {
-		BodyParam bodyParamAnnotation = parameter.getParameterAnnotation(BodyParam.class);
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> getParsedRequestBody(ServletWebRequest webRequest, RequestBodyMapper requestBodyMapper,
+			CompiledBodyParam bodyParam, MediaType mediaType) throws IOException {
+		String attributeName = PARSED_REQUEST_BODY_ATTRIBUTE_PREFIX + requestBodyMapper.getClass().getName();
 
-		// If name matching mode explicitly defined for parameter, use that
-		if (bodyParamAnnotation.nameMatchingMode() != NameMatchingMode.DEFAULT)
-			return bodyParamAnnotation.nameMatchingMode();
+		// The request body can only be read once and parsing it is by far the most
+		// expensive step, so the parsed body is shared by all @BodyParam arguments of
+		// the same request
+		Map<String, Object> requestBodyMap = (Map<String, Object>) webRequest.getAttribute(attributeName,
+				RequestAttributes.SCOPE_REQUEST);
 
-		// Check if method is annotated with name matching annotation first
-		if (parameter.hasMethodAnnotation(NameMatching.class)) {
-			NameMatchingMode modeParam = parameter.getMethodAnnotation(NameMatching.class).mode();
-			NameMatchingMode valueParam = parameter.getMethodAnnotation(NameMatching.class).value();
+		if (requestBodyMap == null) {
+			byte[] requestBody = getRequestBody(webRequest, bodyParam, mediaType);
+			long startTime = System.nanoTime();
 
-			if (modeParam != NameMatching.DEFAULT_MODE)
-				return modeParam;
-			if (valueParam != NameMatching.DEFAULT_MODE)
-				return valueParam;
+			requestBodyMap = mapRequestBody(requestBodyMapper, requestBody, bodyParam.getRequestBodyLimits());
+
+			this.metrics.recordPhase(Phase.PARSE, getHandlerMethod(bodyParam), mediaType, null,
+					System.nanoTime() - startTime);
+			webRequest.setAttribute(attributeName, requestBodyMap, RequestAttributes.SCOPE_REQUEST);
 		}
 
-		Class<?> declaringClass = parameter.getDeclaringClass();
+		return requestBodyMap;
+	}
+
+	private Map<CompiledBodyParam, Object> getExtractedBodyParams(ServletWebRequest webRequest,
+			RequestBodyMapper requestBodyMapper, BodyParamPathTrie trie, CompiledBodyParam bodyParam,
+			MediaType mediaType) throws IOException {
+		String attributeName = EXTRACTED_BODY_PARAMS_ATTRIBUTE_PREFIX + requestBodyMapper.getClass().getName();
+
+		ExtractedBodyParams extractedBodyParams = (ExtractedBodyParams) webRequest.getAttribute(attributeName,
+				RequestAttributes.SCOPE_REQUEST);
+
+		// The values of all parameters of the handler method are extracted in one
+		// traversal of the request body and handed out as each argument is resolved
+		if (extractedBodyParams == null || extractedBodyParams.trie != trie) {
+			Map<CompiledBodyParam, Object> values;
+
+			if (this.parseStrategy == ParseStrategy.STREAMING
+					&& requestBodyMapper instanceof StreamingRequestBodyMapper) {
+				byte[] requestBody = getRequestBody(webRequest, bodyParam, mediaType);
+				long startTime = System.nanoTime();
+
+				values = streamBodyParams(requestBody, (StreamingRequestBodyMapper) requestBodyMapper, trie,
+						bodyParam.getRequestBodyLimits());
+
+				this.metrics.recordPhase(Phase.EXTRACT, getHandlerMethod(bodyParam), mediaType, null,
+						System.nanoTime() - startTime);
+			} else {
+				Map<String, Object> requestBodyMap = getParsedRequestBody(webRequest, requestBodyMapper, bodyParam,
+						mediaType);
+				long startTime = System.nanoTime();
+
+				values = this.bodyParamReader.readBodyParams(trie, requestBodyMap);
 
-		// Finally, check if the type has a name matching annotation
-		if (declaringClass.isAnnotationPresent(NameMatching.class)) {
-			NameMatchingMode modeParam = declaringClass.getAnnotation(NameMatching.class).mode();
-			NameMatchingMode valueParam = declaringClass.getAnnotation(NameMatching.class).value();
+				this.metrics.recordPhase(Phase.EXTRACT, getHandlerMethod(bodyParam), mediaType, null,
+						System.nanoTime() - startTime);
+			}
 
-			if (modeParam != NameMatching.DEFAULT_MODE)
-				return modeParam;
-			if (valueParam != NameMatching.DEFAULT_MODE)
-				return valueParam;
+			extractedBodyParams = new ExtractedBodyParams(trie, values);
+			webRequest.setAttribute(attributeName, extractedBodyParams, RequestAttributes.SCOPE_REQUEST);
 		}
 
-		// No overrides found, so use default
-		return NameMatching.DEFAULT_MODE;
+		return extractedBodyParams.values;
+	}
 
+	private Map<CompiledBodyParam, Object> streamBodyParams(byte[] requestBody,
+			StreamingRequestBodyMapper requestBodyMapper, BodyParamPathTrie trie, RequestBodyLimits requestBodyLimits)
+			throws IOException {
+		try (JsonParser parser = requestBodyLimits.limit(requestBodyMapper.createParser(requestBody))) {
+			return this.bodyParamReader.streamBodyParams(parser, trie, requestBodyMapper);
+		} catch (JsonProcessingException e) {
+			RequestBodyLimits.throwIfExceeded(e);
+			throw new IllegalArgumentException("Request body is not valid and cannot be decoded");
+		} catch (IllegalArgumentException e) {
+			// Values that cannot be bound are reported as invalid, which includes values
+			// that could not be bound because a limit was exceeded
+			RequestBodyLimits.throwIfExceeded(e);
+			throw e;
+		}
 	}
 
-	private String getBodyAsString(ServletWebRequest webRequest) throws IOException {
-		return webRequest.getRequest().getReader().lines().collect(Collectors.joining(System.lineSeparator()));
+	private byte[] getRequestBody(ServletWebRequest webRequest, CompiledBodyParam bodyParam, MediaType mediaType)
+			throws IOException {
+		RequestBodyLimits requestBodyLimits = bodyParam.getRequestBodyLimits();
+		byte[] requestBody = getCachedRequestBody(webRequest);
+
+		if (requestBody == null) {
+			long startTime = System.nanoTime();
+
+			requestBody = readRequestBody(webRequest.getRequest(), requestBodyLimits);
+
+			this.metrics.recordPhase(Phase.READ, getHandlerMethod(bodyParam), mediaType, null,
+					System.nanoTime() - startTime);
+		} else {
+			// Request bodies that were read elsewhere were not limited while they were read
+			requestBodyLimits.checkBodySize(requestBody.length);
+		}
+
+		webRequest.setAttribute(REQUEST_BODY_ATTRIBUTE, requestBody, RequestAttributes.SCOPE_REQUEST);
+
+		return requestBody;
 	}
 
-	private MediaType getMediaType(ServletWebRequest webRequest) {
+	/**
+	 * Returns the request body if it was already read, either by this resolver,
+	 * by a message converter or by a request wrapper that cached it, or
+	 * {@code null} if it still has to be read.
+	 */
+	private static byte[] getCachedRequestBody(ServletWebRequest webRequest) throws IOException {
+		byte[] requestBody = (byte[]) webRequest.getAttribute(REQUEST_BODY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+		if (requestBody != null)
+			return requestBody;
+
 		HttpServletRequest httpRequest = webRequest.getRequest();
+		BodyParamCachingRequestWrapper cachingRequest = WebUtils.getNativeRequest(httpRequest,
+				BodyParamCachingRequestWrapper.class);
 
-		String contentType = httpRequest.getContentType();
+		if (cachingRequest != null)
+			return cachingRequest.getCachedBody();
 
-		return MediaType.parseMediaType(contentType);
-	}
+		// Spring's wrapper only caches what was read through it, which is the entire
+		// request body once all of it was read
+		ContentCachingRequestWrapper contentCachingRequest = WebUtils.getNativeRequest(httpRequest,
+				ContentCachingRequestWrapper.class);
+
+		if (contentCachingRequest != null) {
+			byte[] content = contentCachingRequest.getContentAsByteArray();
+			int contentLength = contentCachingRequest.getContentLength();
 
-	private String getParamPath(BodyParam bodyParam, MethodParameter parameter) {
-		String definedArgumentPath = bodyParam.path();
-
-		// If no argument name is explicitly defined, attempt to use parameter name
-		if (definedArgumentPath.equals(ValueConstants.DEFAULT_NONE)) {
-			if (parameter.getParameterName() != null)
-				return parameter.getParameterName();
-			throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
-					"Cannot resolve parameter path in controller method " + parameter.getMethod().getName()
-							+ " at index " + parameter.getParameterIndex()
-							+ " because no name was explicitly defined and javac \"-parameters\" compile option not used");
+			if (contentLength >= 0 ? content.length == contentLength
+					: contentCachingRequest.getInputStream().isFinished())
+				return content;
 		}
 
-		return definedArgumentPath;
+		return null;
 	}
 
-	private RequestBodyMapper selectRequestBodyMapper(MediaType mediaType) throws HttpMediaTypeNotSupportedException {
-		if (!this.registeredRequestBodyMappers.containsKey(mediaType))
-			throw new IllegalArgumentException("Media type " + mediaType + " is not supported by the @"
-					+ BodyParam.class.getSimpleName() + " annotation.");
+	private byte[] readRequestBody(ServletRequest request, RequestBodyLimits requestBodyLimits) throws IOException {
+		BodyParamCachingRequestWrapper cachingRequest = WebUtils.getNativeRequest(request,
+				BodyParamCachingRequestWrapper.class);
+
+		// The request body is read from the wrapped request, so that it is limited
+		// while it is read, and handed to the wrapper to replay it to others
+		if (cachingRequest != null) {
+			byte[] requestBody = readRequestBody(cachingRequest.getRequest(), requestBodyLimits);
+			cachingRequest.setCachedBody(requestBody);
+
+			return requestBody;
+		}
+
+		InputStream inputStream = request.getInputStream();
+		int contentLength = request.getContentLength();
+
+		// Request bodies that are too large are rejected before they are read
+		requestBodyLimits.checkBodySize(request.getContentLengthLong());
+
+		// The raw bytes are handed to the parser as is, which leaves character
+		// decoding to the parser
+		if (contentLength < 0) {
+			long maxBodySize = requestBodyLimits.getMaxBodySize();
+
+			if (maxBodySize < 0)
+				return inputStream.readAllBytes();
+
+			// Reading a single byte more than allowed is enough to reject the request body
+			byte[] requestBody = inputStream.readNBytes((int) Math.min(maxBodySize + 1, Integer.MAX_VALUE - 8));
+			requestBodyLimits.checkBodySize(requestBody.length);
+
+			return requestBody;
+		}
+
+		// The content length is announced by the client, so larger buffers are only
+		// allocated as the bytes actually arrive
+		byte[] requestBody = new byte[Math.min(contentLength, MAX_INITIAL_BUFFER_SIZE)];
+		int bytesRead = 0;
 
-		return this.registeredRequestBodyMappers.get(mediaType);
+		while (bytesRead < contentLength) {
+			if (bytesRead == requestBody.length)
+				requestBody = Arrays.copyOf(requestBody, (int) Math.min(requestBody.length * 2L, contentLength));
+
+			int count = inputStream.read(requestBody, bytesRead, requestBody.length - bytesRead);
+
+			if (count < 0)
+				break;
+
+			bytesRead += count;
+		}
+
+		return bytesRead == requestBody.length ? requestBody : Arrays.copyOf(requestBody, bytesRead);
 	}
 
-	static Object stringToDefaultValue(Class<?> clazz, String value) {
-		if (Boolean.class == clazz)
-			return Boolean.parseBoolean(value);
-		if (Byte.class == clazz)
-			return Byte.parseByte(value);
-		if (Short.class == clazz)
-			return Short.parseShort(value);
-		if (Integer.class == clazz)
-			return Integer.parseInt(value);
-		if (Long.class == clazz)
-			return Long.parseLong(value);
-		if (Float.class == clazz)
-			return Float.parseFloat(value);
-		if (Double.class == clazz)
-			return Double.parseDouble(value);
-		if (String.class == clazz)
-			return value;
-		if (clazz.isEnum())
-			return Arrays.stream(clazz.getEnumConstants()).filter(v -> v.toString().equalsIgnoreCase(value)).findFirst()
-					.orElseThrow(() -> new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
-							"Cannot convert string \"" + value + " to any of the enum values of enum " + clazz));
-
-		throw new IllegalArgumentException("Value \"" + value + "\" cannot be converted to an instance of " + clazz);
+	private Selection selectRequestBodyMapper(ServletWebRequest webRequest) throws HttpMediaTypeNotSupportedException {
+		String contentType = webRequest.getRequest().getContentType();
+		Selection selection = this.requestBodyMapperRegistry.select(contentType);
+
+		if (selection == null)
+			throw new HttpMediaTypeNotSupportedException(RequestBodyMapperRegistry.parseMediaType(contentType),
+					this.requestBodyMapperRegistry.getSupportedMediaTypes());
+
+		return selection;
 	}
 }
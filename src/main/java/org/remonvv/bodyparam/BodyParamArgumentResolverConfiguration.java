@@ -22,18 +22,92 @@
 package org.remonvv.bodyparam;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 @Configuration
-@ConditionalOnWebApplication
-public class BodyParamArgumentResolverConfiguration implements WebMvcConfigurer {
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@EnableConfigurationProperties(BodyParamProperties.class)
+public class BodyParamArgumentResolverConfiguration implements WebMvcConfigurer, SmartInitializingSingleton {
+
+	private final BodyParamProperties properties;
+
+	private final ObjectProvider<BodyParamMetrics> metrics;
+
+	private final ObjectProvider<RequestBodyMapper> requestBodyMappers;
+
+	private final ObjectProvider<NameMatcher> nameMatchers;
+
+	private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+	private BodyParamArgumentResolver bodyParamArgumentResolver;
+
+	public BodyParamArgumentResolverConfiguration(BodyParamProperties properties,
+			ObjectProvider<BodyParamMetrics> metrics, ObjectProvider<RequestBodyMapper> requestBodyMappers,
+			ObjectProvider<NameMatcher> nameMatchers, ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+		this.properties = properties;
+		this.metrics = metrics;
+		this.requestBodyMappers = requestBodyMappers;
+		this.nameMatchers = nameMatchers;
+		this.handlerMappings = handlerMappings;
+	}
 
 	@Override
 	public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
-		resolvers.add(new BodyParamArgumentResolver(new BodyParamReader()));
+		resolvers.add(getBodyParamArgumentResolver());
+	}
+
+	// Handler methods that mix @RequestBody and @BodyParam arguments share the
+	// request body through this advice, message converters are looked up when a
+	// request body read by the argument resolver has to be converted
+	@Bean
+	BodyParamRequestBodyAdvice bodyParamRequestBodyAdvice(ObjectProvider<RequestMappingHandlerAdapter> handlerAdapters) {
+		return new BodyParamRequestBodyAdvice(this.properties.getRequestBodyLimits(),
+				() -> handlerAdapters.orderedStream()
+						.flatMap(handlerAdapter -> handlerAdapter.getMessageConverters().stream())
+						.collect(Collectors.toList()));
+	}
+
+	// Compiling all parameters at startup rejects invalid parameters before the
+	// application takes traffic and takes compilation off the first requests
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (this.properties.isPrepareHandlerMethods())
+			this.handlerMappings.orderedStream().forEach(handlerMapping -> getBodyParamArgumentResolver()
+					.prepareHandlerMethods(handlerMapping.getHandlerMethods().values()));
+	}
+
+	private BodyParamArgumentResolver getBodyParamArgumentResolver() {
+		if (this.bodyParamArgumentResolver == null) {
+			BodyParamMetrics metrics = this.properties.getMetrics().isEnabled()
+					? this.metrics.getIfAvailable(() -> BodyParamMetrics.NONE)
+					: BodyParamMetrics.NONE;
+			RequestBodyMapperRegistry requestBodyMapperRegistry = new RequestBodyMapperRegistry(
+					this.requestBodyMappers.orderedStream().collect(Collectors.toList()),
+					this.properties.getCache().getContentTypes());
+			BodyParamResolverSettings settings = new BodyParamResolverSettings()
+					.metrics(metrics)
+					.requestBodyMapperRegistry(requestBodyMapperRegistry)
+					.requestBodyLimits(this.properties.getRequestBodyLimits())
+					.nameMatchingMode(this.properties.getNameMatchingMode())
+					.nameMatchers(this.nameMatchers.orderedStream().collect(Collectors.toList()));
+
+			this.bodyParamArgumentResolver = new BodyParamArgumentResolver(
+					new BodyParamReader(this.properties.getCache().getParamPaths()),
+					this.properties.getParseStrategy(), settings);
+		}
+
+		return this.bodyParamArgumentResolver;
 	}
 }
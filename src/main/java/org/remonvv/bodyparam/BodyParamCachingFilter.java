@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Filter that wraps requests in a {@link BodyParamCachingRequestWrapper}, so
+ * that filters further down the chain, message converters and the
+ * {@code @BodyParam} argument resolver can all read the request body while it
+ * is only read from the client once. Requests that are not read are not
+ * buffered.
+ */
+public class BodyParamCachingFilter extends OncePerRequestFilter {
+
+	private final RequestBodyLimits requestBodyLimits;
+
+	public BodyParamCachingFilter() {
+		this(-1);
+	}
+
+	/**
+	 * Creates a filter that rejects request bodies larger than the given maximum
+	 * size in bytes if they are read before the handler method is known, for
+	 * example by other filters. Negative sizes are not enforced.
+	 */
+	public BodyParamCachingFilter(long maxBodySize) {
+		this.requestBodyLimits = new RequestBodyLimits(maxBodySize, -1, -1);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if (WebUtils.getNativeRequest(request, BodyParamCachingRequestWrapper.class) == null)
+			request = new BodyParamCachingRequestWrapper(request, this.requestBodyLimits);
+
+		filterChain.doFilter(request, response);
+	}
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Request wrapper that reads the request body once and replays it to every
+ * reader of the request. Unlike {@code ContentCachingRequestWrapper} the
+ * request body is not copied while it is read, the {@code @BodyParam} argument
+ * resolver and message converters share the same bytes regardless of which of
+ * them reads the request body first.
+ */
+public class BodyParamCachingRequestWrapper extends HttpServletRequestWrapper {
+
+	private RequestBodyLimits requestBodyLimits;
+
+	private byte[] body;
+
+	public BodyParamCachingRequestWrapper(HttpServletRequest request) {
+		this(request, RequestBodyLimits.UNLIMITED);
+	}
+
+	BodyParamCachingRequestWrapper(HttpServletRequest request, RequestBodyLimits requestBodyLimits) {
+		super(request);
+		this.requestBodyLimits = requestBodyLimits;
+	}
+
+	@Override
+	public ServletInputStream getInputStream() throws IOException {
+		if (this.body == null) {
+			// Request bodies that are too large are rejected before they are buffered
+			this.requestBodyLimits.checkBodySize(getContentLengthLong());
+
+			try {
+				this.body = this.requestBodyLimits.limit(getRequest().getInputStream()).readAllBytes();
+			} catch (IOException e) {
+				RequestBodyLimits.throwIfExceeded(e);
+				throw e;
+			}
+		}
+
+		return new CachedBodyInputStream(this.body);
+	}
+
+	@Override
+	public BufferedReader getReader() throws IOException {
+		String characterEncoding = getCharacterEncoding();
+
+		return new BufferedReader(new InputStreamReader(getInputStream(),
+				characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING));
+	}
+
+	/**
+	 * Returns the request body, or {@code null} if it was not read yet.
+	 */
+	byte[] getCachedBody() {
+		return this.body;
+	}
+
+	void setCachedBody(byte[] body) {
+		this.body = body;
+	}
+
+	/**
+	 * Sets the limits the request body is read with, once it is known which
+	 * handler method the request is for.
+	 */
+	void setRequestBodyLimits(RequestBodyLimits requestBodyLimits) {
+		this.requestBodyLimits = requestBodyLimits;
+	}
+
+	private static final class CachedBodyInputStream extends ServletInputStream {
+
+		private final ByteArrayInputStream body;
+
+		CachedBodyInputStream(byte[] body) {
+			this.body = new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public int read() {
+			return this.body.read();
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) {
+			return this.body.read(b, off, len);
+		}
+
+		@Override
+		public int available() {
+			return this.body.available();
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.body.available() == 0;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		// The request body is already buffered, so all of it is available right away
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			try {
+				readListener.onDataAvailable();
+				readListener.onAllDataRead();
+			} catch (IOException e) {
+				readListener.onError(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the request bodies {@code @BodyParam} values are read from for a
+ * controller method, or for all methods of a controller. Limits that are not
+ * specified on the method fall back to those of the controller and then to the
+ * {@code bodyparam.max-body-size}, {@code bodyparam.max-depth} and
+ * {@code bodyparam.max-tokens} application properties. Negative values leave a
+ * limit unspecified.
+ *
+ * @author Remon van Vliet
+ */
+@Target({
+		ElementType.TYPE, ElementType.METHOD
+})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BodyParamLimits {
+
+	/**
+	 * Maximum size of the request body in bytes. Larger request bodies are
+	 * rejected with {@code 413 Payload Too Large} before they are read.
+	 */
+	long maxBodySize() default -1;
+
+	/**
+	 * Maximum nesting depth of objects and arrays in the request body. Request
+	 * bodies that are nested deeper are rejected with {@code 400 Bad Request}.
+	 */
+	int maxDepth() default -1;
+
+	/**
+	 * Maximum number of tokens in the request body, every field name, scalar value
+	 * and start or end of an object or array is a token. Request bodies with more
+	 * tokens are rejected with {@code 400 Bad Request}.
+	 */
+	long maxTokens() default -1;
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.lang.reflect.Method;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Receives timings and events of {@code @BodyParam} argument resolution. Phases
+ * that are executed once per request (reading, parsing and extracting the
+ * request body) are recorded without a name matching mode, phases that are
+ * executed for every argument (resolving and converting) include the name
+ * matching mode of the argument. All methods do nothing by default.
+ */
+public interface BodyParamMetrics {
+
+	BodyParamMetrics NONE = new BodyParamMetrics() {};
+
+	enum Phase {
+		/**
+		 * Resolving a single argument, including all other phases it triggered.
+		 */
+		RESOLVE,
+		/**
+		 * Reading the raw request body.
+		 */
+		READ,
+		/**
+		 * Decoding the entire request body using the tree parse strategy.
+		 */
+		PARSE,
+		/**
+		 * Extracting the values of all parameters of the handler method. When using
+		 * the streaming parse strategy this includes decoding the request body.
+		 */
+		EXTRACT,
+		/**
+		 * Converting an extracted value to the parameter type.
+		 */
+		CONVERT
+	}
+
+	default void recordPhase(Phase phase, Method handlerMethod, MediaType mediaType,
+			NameMatchingMode nameMatchingMode, long durationNanos) {
+	}
+
+	default void recordMissingRequiredValue(Method handlerMethod, MediaType mediaType,
+			NameMatchingMode nameMatchingMode) {
+	}
+
+	default void recordDefaultValue(Method handlerMethod, MediaType mediaType, NameMatchingMode nameMatchingMode) {
+	}
+}
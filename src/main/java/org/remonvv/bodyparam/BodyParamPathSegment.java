@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.Objects;
+
+/**
+ * Single segment of a compiled {@code @BodyParam} path. A segment either
+ * selects the field of an object by name, or selects elements of an array by
+ * index ({@code [0]}), by slice ({@code [1:3]}, end exclusive) or all of them
+ * ({@code [*]}). Paths containing a slice or wildcard select multiple values.
+ */
+final class BodyParamPathSegment {
+
+	private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+	private final String name;
+	private final int start;
+	private final int end;
+	private final boolean multiValued;
+
+	private BodyParamPathSegment(String name, int start, int end, boolean multiValued) {
+		this.name = name;
+		this.start = start;
+		this.end = end;
+		this.multiValued = multiValued;
+	}
+
+	static BodyParamPathSegment name(String name) {
+		return new BodyParamPathSegment(name, 0, 0, false);
+	}
+
+	static BodyParamPathSegment index(int index) {
+		return new BodyParamPathSegment(null, index, index + 1, false);
+	}
+
+	static BodyParamPathSegment slice(Integer start, Integer end) {
+		return new BodyParamPathSegment(null, start == null ? 0 : start, end == null ? UNBOUNDED : end, true);
+	}
+
+	boolean isName() {
+		return this.name != null;
+	}
+
+	String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Whether this segment selects more than a single array element.
+	 */
+	boolean isMultiValued() {
+		return this.multiValued;
+	}
+
+	/**
+	 * Whether this array segment selects the element at the given index.
+	 */
+	boolean matches(int index) {
+		return index >= this.start && index < this.end;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof BodyParamPathSegment))
+			return false;
+
+		BodyParamPathSegment other = (BodyParamPathSegment) o;
+
+		return Objects.equals(this.name, other.name) && this.start == other.start && this.end == other.end
+				&& this.multiValued == other.multiValued;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.name, this.start, this.end, this.multiValued);
+	}
+
+	@Override
+	public String toString() {
+		if (this.name != null)
+			return this.name;
+		if (!this.multiValued)
+			return "[" + this.start + "]";
+		if (this.start == 0 && this.end == UNBOUNDED)
+			return "[*]";
+
+		return "[" + (this.start == 0 ? "" : this.start) + ":" + (this.end == UNBOUNDED ? "" : this.end) + "]";
+	}
+}
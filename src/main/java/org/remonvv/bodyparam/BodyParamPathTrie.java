@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Combined path trie of all {@code @BodyParam} parameters of a handler method.
+ * Parameters that share a path prefix share the trie nodes for that prefix so
+ * that the values of all parameters can be extracted in a single traversal of
+ * the request body.
+ */
+final class BodyParamPathTrie {
+
+	private final Node root = new Node(null, null, null);
+
+	private final Set<CompiledBodyParam> bodyParams;
+
+	BodyParamPathTrie(Collection<CompiledBodyParam> bodyParams) {
+		this.bodyParams = Set.copyOf(bodyParams);
+
+		for (CompiledBodyParam bodyParam : this.bodyParams) {
+			Node node = this.root;
+			Node firstMultiValuedParent = null;
+
+			for (BodyParamPathSegment segment : bodyParam.getParamPathSegments()) {
+				if (segment.isMultiValued() && firstMultiValuedParent == null)
+					firstMultiValuedParent = node;
+
+				node = segment.isName() ? node.getOrAddChild(segment.getName(), bodyParam.getNameMatcher())
+						: node.getOrAddElementChild(segment);
+			}
+
+			node.bodyParams.add(bodyParam);
+
+			if (firstMultiValuedParent != null)
+				firstMultiValuedParent.multiValuedBodyParams.add(bodyParam);
+		}
+	}
+
+	Node getRoot() {
+		return this.root;
+	}
+
+	boolean contains(CompiledBodyParam bodyParam) {
+		return this.bodyParams.contains(bodyParam);
+	}
+
+	int size() {
+		return this.bodyParams.size();
+	}
+
+	static final class Node {
+
+		private final String paramPath;
+		private final String paramPathPart;
+		private final NameMatcher nameMatcher;
+		private final String normalizedParamPathPart;
+		private final List<CompiledBodyParam> bodyParams = new ArrayList<>(1);
+		private final List<CompiledBodyParam> multiValuedBodyParams = new ArrayList<>(0);
+		private final List<Node> namedChildren = new ArrayList<>(1);
+		private final Map<NameMatcher, Map<String, Node>> childIndex = new LinkedHashMap<>(2);
+		private final Map<BodyParamPathSegment, Node> elementChildren = new LinkedHashMap<>(0);
+		private final BodyParamPathSegment segment;
+
+		private Node(String paramPath, String paramPathPart, NameMatcher nameMatcher) {
+			this(paramPath, paramPathPart, nameMatcher, null);
+		}
+
+		private Node(String paramPath, String paramPathPart, NameMatcher nameMatcher, BodyParamPathSegment segment) {
+			this.paramPath = paramPath;
+			this.paramPathPart = paramPathPart;
+			this.nameMatcher = nameMatcher;
+			this.normalizedParamPathPart = paramPathPart == null || nameMatcher == null ? null
+					: nameMatcher.normalize(paramPathPart);
+			this.segment = segment;
+		}
+
+		private Node getOrAddChild(String paramPathPart, NameMatcher nameMatcher) {
+			// Path parts that match the same names share a node (e.g. "orderId" and
+			// "order_id" when non alpha numeric characters are ignored)
+			Map<String, Node> matcherChildren = this.childIndex.computeIfAbsent(nameMatcher, m -> new HashMap<>());
+			Node child = matcherChildren.get(nameMatcher.normalize(paramPathPart));
+
+			if (child == null) {
+				child = new Node(this.paramPath == null ? paramPathPart : this.paramPath + "." + paramPathPart,
+						paramPathPart, nameMatcher);
+				matcherChildren.put(child.normalizedParamPathPart, child);
+				this.namedChildren.add(child);
+			}
+
+			return child;
+		}
+
+		private Node getOrAddElementChild(BodyParamPathSegment segment) {
+			return this.elementChildren.computeIfAbsent(segment,
+					s -> new Node(this.paramPath + s, s.toString(), null, s));
+		}
+
+		/**
+		 * Returns the child node that matches the given key with the given name
+		 * matcher, or null if there is no such child.
+		 */
+		Node getChild(String key, NameMatcher nameMatcher) {
+			Map<String, Node> matcherChildren = this.childIndex.get(nameMatcher);
+
+			return matcherChildren == null ? null : matcherChildren.get(nameMatcher.normalize(key));
+		}
+
+		Set<NameMatcher> getChildNameMatchers() {
+			return this.childIndex.keySet();
+		}
+
+		/**
+		 * Returns the children that select array elements and match the element at
+		 * the given index.
+		 */
+		List<Node> getElementChildren(int index) {
+			List<Node> matchingChildren = null;
+
+			for (Node child : this.elementChildren.values())
+				if (child.segment.matches(index)) {
+					if (matchingChildren == null)
+						matchingChildren = new ArrayList<>(1);
+
+					matchingChildren.add(child);
+				}
+
+			return matchingChildren == null ? List.of() : matchingChildren;
+		}
+
+		String getParamPath() {
+			return this.paramPath;
+		}
+
+		String getParamPathPart() {
+			return this.paramPathPart;
+		}
+
+		NameMatcher getNameMatcher() {
+			return this.nameMatcher;
+		}
+
+		String getNormalizedParamPathPart() {
+			return this.normalizedParamPathPart;
+		}
+
+		List<CompiledBodyParam> getBodyParams() {
+			return this.bodyParams;
+		}
+
+		/**
+		 * Returns the parameters that select multiple values and of which the first
+		 * multi valued segment selects elements of the value of this node. All values
+		 * of those parameters have been read once the value of this node is read.
+		 */
+		List<CompiledBodyParam> getMultiValuedBodyParams() {
+			return this.multiValuedBodyParams;
+		}
+
+		List<Node> getNamedChildren() {
+			return this.namedChildren;
+		}
+
+		boolean hasNamedChildren() {
+			return !this.namedChildren.isEmpty();
+		}
+
+		boolean hasElementChildren() {
+			return !this.elementChildren.isEmpty();
+		}
+
+		boolean hasChildren() {
+			return hasNamedChildren() || hasElementChildren();
+		}
+	}
+}
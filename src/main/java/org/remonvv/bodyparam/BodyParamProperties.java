@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration properties of the {@code @BodyParam} argument resolvers, bound
+ * from the {@code bodyparam} prefix.
+ */
+@ConfigurationProperties("bodyparam")
+public class BodyParamProperties {
+
+	static final int DEFAULT_CACHE_SIZE = 256;
+
+	/**
+	 * Name matching mode of parameters that do not specify one themselves.
+	 */
+	private NameMatchingMode nameMatchingMode = NameMatching.DEFAULT_MODE;
+
+	/**
+	 * Strategy used to read request bodies, does not apply to WebFlux
+	 * applications.
+	 */
+	private ParseStrategy parseStrategy = ParseStrategy.TREE;
+
+	/**
+	 * Maximum size of request bodies, negative for no limit.
+	 */
+	private DataSize maxBodySize = DataSize.ofBytes(-1);
+
+	/**
+	 * Maximum nesting depth of request bodies, negative for no limit.
+	 */
+	private int maxDepth = -1;
+
+	/**
+	 * Maximum number of tokens in request bodies, negative for no limit.
+	 */
+	private long maxTokens = -1;
+
+	/**
+	 * Whether to compile all {@code @BodyParam} parameters at startup, failing
+	 * startup if any of them is invalid.
+	 */
+	private boolean prepareHandlerMethods = true;
+
+	private final Cache cache = new Cache();
+
+	private final Metrics metrics = new Metrics();
+
+	public NameMatchingMode getNameMatchingMode() {
+		return this.nameMatchingMode;
+	}
+
+	public void setNameMatchingMode(NameMatchingMode nameMatchingMode) {
+		this.nameMatchingMode = nameMatchingMode;
+	}
+
+	public ParseStrategy getParseStrategy() {
+		return this.parseStrategy;
+	}
+
+	public void setParseStrategy(ParseStrategy parseStrategy) {
+		this.parseStrategy = parseStrategy;
+	}
+
+	public DataSize getMaxBodySize() {
+		return this.maxBodySize;
+	}
+
+	public void setMaxBodySize(DataSize maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	public long getMaxTokens() {
+		return this.maxTokens;
+	}
+
+	public void setMaxTokens(long maxTokens) {
+		this.maxTokens = maxTokens;
+	}
+
+	public boolean isPrepareHandlerMethods() {
+		return this.prepareHandlerMethods;
+	}
+
+	public void setPrepareHandlerMethods(boolean prepareHandlerMethods) {
+		this.prepareHandlerMethods = prepareHandlerMethods;
+	}
+
+	public Cache getCache() {
+		return this.cache;
+	}
+
+	public Metrics getMetrics() {
+		return this.metrics;
+	}
+
+	RequestBodyLimits getRequestBodyLimits() {
+		return new RequestBodyLimits(this.maxBodySize.toBytes(), this.maxDepth, this.maxTokens);
+	}
+
+	public static class Cache {
+
+		/**
+		 * Maximum number of compiled parameter paths that are cached.
+		 */
+		private int paramPaths = DEFAULT_CACHE_SIZE;
+
+		/**
+		 * Maximum number of distinct content types for which the selected request
+		 * body mapper is cached.
+		 */
+		private int contentTypes = DEFAULT_CACHE_SIZE;
+
+		public int getParamPaths() {
+			return this.paramPaths;
+		}
+
+		public void setParamPaths(int paramPaths) {
+			this.paramPaths = paramPaths;
+		}
+
+		public int getContentTypes() {
+			return this.contentTypes;
+		}
+
+		public void setContentTypes(int contentTypes) {
+			this.contentTypes = contentTypes;
+		}
+	}
+
+	public static class Metrics {
+
+		/**
+		 * Whether to record metrics of resolving parameter values.
+		 */
+		private boolean enabled = true;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+	}
+}
@@ -21,58 +21,496 @@
  */
 package org.remonvv.bodyparam;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.remonvv.bodyparam.BodyParamPathTrie.Node;
 import org.springframework.util.Assert;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
 public class BodyParamReader {
 
-	@SuppressWarnings("unchecked")
+	private final Map<String, List<BodyParamPathSegment>> compiledParamPaths = new ConcurrentHashMap<>();
+
+	private final int maxCachedParamPaths;
+
+	public BodyParamReader() {
+		this(BodyParamProperties.DEFAULT_CACHE_SIZE);
+	}
+
+	public BodyParamReader(int maxCachedParamPaths) {
+		this.maxCachedParamPaths = maxCachedParamPaths;
+	}
+
 	public Optional<Object> readBodyParam(String paramPath, Type paramType, String requestBody,
 			NameMatchingMode nameMatchingMode, RequestBodyMapper requestBodyMapper) {
 
-		List<String> paramPathParts = validateAndCompileParamPath(paramPath);
-		List<String> currentPath = new ArrayList<>(paramPathParts.size());
+		List<BodyParamPathSegment> paramPathSegments = compileParamPath(paramPath);
 
-		Map<String, Object> bodyMap = requestBodyMapper.mapRequestBody(requestBody);
+		return readBodyParam(paramPath, paramPathSegments, paramType, requestBodyMapper.mapRequestBody(requestBody),
+				nameMatchingMode, requestBodyMapper);
+	}
 
-		for (int i = 0; i < paramPathParts.size(); i++) {
-			String paramNamePart = paramPathParts.get(i);
-			boolean isLastPart = i == paramPathParts.size() - 1;
-			currentPath.add(paramNamePart);
+	public Optional<Object> readBodyParam(String paramPath, Type paramType, Map<String, Object> requestBodyMap,
+			NameMatchingMode nameMatchingMode, RequestBodyMapper requestBodyMapper) {
 
-			for (String key : bodyMap.keySet())
-				if (NameMatchingUtils.isNameMatching(key, paramNamePart, nameMatchingMode)) {
-					if (isLastPart) {
-						Object value = bodyMap.get(key);
-						Object convertedValue = requestBodyMapper.convertValue(paramType, value);
+		List<BodyParamPathSegment> paramPathSegments = compileParamPath(paramPath);
 
-						return Optional.ofNullable(convertedValue);
-					}
+		return readBodyParam(paramPath, paramPathSegments, paramType, requestBodyMap, nameMatchingMode,
+				requestBodyMapper);
+	}
+
+	private Optional<Object> readBodyParam(String paramPath, List<BodyParamPathSegment> paramPathSegments,
+			Type paramType, Map<String, Object> requestBodyMap, NameMatchingMode nameMatchingMode,
+			RequestBodyMapper requestBodyMapper) {
+
+		CompiledBodyParam bodyParam = new CompiledBodyParam(null, paramPath, paramPathSegments, nameMatchingMode,
+				TypeFactory.defaultInstance().constructType(paramType), Optional.empty(), true);
+
+		Object value = readBodyParams(new BodyParamPathTrie(List.of(bodyParam)), requestBodyMap).get(bodyParam);
+
+		return Optional.ofNullable(value)
+				.map(v -> requestBodyMapper.convertValue(paramType, v));
+	}
+
+	/**
+	 * Reads the unconverted values of all parameters in the given trie from the
+	 * decoded request body in a single traversal. Parameters for which no value is
+	 * present in the request body are not included in the returned map.
+	 */
+	Map<CompiledBodyParam, Object> readBodyParams(BodyParamPathTrie trie, Map<String, Object> requestBodyMap) {
+		Extraction extraction = new Extraction(trie, null);
+
+		readObject(trie.getRoot(), requestBodyMap, extraction);
+
+		return extraction.finish();
+	}
+
+	/**
+	 * Reads the unconverted values of all parameters in the given trie from the
+	 * token stream of the request body. Only values on the path of any of the
+	 * parameters are decoded and reading stops as soon as all parameter values are
+	 * found.
+	 */
+	Map<CompiledBodyParam, Object> streamBodyParams(JsonParser parser, BodyParamPathTrie trie) throws IOException {
+		return streamBodyParams(parser, trie, null);
+	}
+
+	/**
+	 * Same as {@link #streamBodyParams(JsonParser, BodyParamPathTrie)}, but values
+	 * that are only addressed by parameters of a single type are bound to that
+	 * type by the given mapper straight from the token stream. Such values are
+	 * returned as a {@link BoundValue} and need no further conversion.
+	 */
+	Map<CompiledBodyParam, Object> streamBodyParams(JsonParser parser, BodyParamPathTrie trie,
+			StreamingRequestBodyMapper requestBodyMapper) throws IOException {
+
+		if (parser.nextToken() != JsonToken.START_OBJECT)
+			throw new IllegalArgumentException("Request body is not an object and cannot be decoded");
+
+		Extraction extraction = new Extraction(trie, requestBodyMapper);
+
+		streamObject(parser, trie.getRoot(), extraction);
+
+		return extraction.finish();
+	}
+
+	/**
+	 * Positions the parser at the records of the given batch parameter and
+	 * returns an iterator that binds them one at a time as it is advanced. The
+	 * records are the elements of the array at the path of the parameter or, for
+	 * the path {@code [*]}, the elements of a root array or the values of a
+	 * sequence of root values like newline delimited JSON. Returns {@code null} if
+	 * there is no array at the path of the parameter.
+	 */
+	BodyParamRecordIterator streamRecords(JsonParser parser, CompiledBodyParam bodyParam,
+			StreamingRequestBodyMapper requestBodyMapper) throws IOException {
+
+		JsonToken token = parser.nextToken();
+
+		if (token == null)
+			return null;
+
+		List<BodyParamPathSegment> paramPathSegments = bodyParam.getParamPathSegments();
+
+		if (paramPathSegments.size() == 1)
+			return new BodyParamRecordIterator(parser, requestBodyMapper, bodyParam.getRecordType(),
+					token != JsonToken.START_ARRAY);
+
+		// Only the fields on the path are read, the values of all other fields are
+		// skipped without being decoded
+		for (BodyParamPathSegment paramPathSegment : paramPathSegments.subList(0, paramPathSegments.size() - 1)) {
+			if (token != JsonToken.START_OBJECT)
+				return null;
+
+			if (!streamToField(parser, paramPathSegment.getName(), bodyParam.getNameMatcher()))
+				return null;
+
+			token = parser.nextToken();
+		}
+
+		if (token == JsonToken.VALUE_NULL)
+			return null;
+		if (token != JsonToken.START_ARRAY)
+			throw new IllegalArgumentException("Value found at \"" + bodyParam.getParamPath() + "\" is not an array");
+
+		return new BodyParamRecordIterator(parser, requestBodyMapper, bodyParam.getRecordType(), false);
+	}
+
+	private static boolean streamToField(JsonParser parser, String name, NameMatcher nameMatcher)
+			throws IOException {
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			if (nameMatcher.matches(parser.getCurrentName(), name))
+				return true;
+
+			parser.nextToken();
+			parser.skipChildren();
+		}
+
+		return false;
+	}
+
+	private void readObject(Node node, Map<String, Object> bodyMap, Extraction extraction) {
+		Map<NameMatcher, Map<String, Object>> normalizedBodyMaps = null;
+
+		for (Node child : node.getNamedChildren()) {
+			Object value;
 
-					Object childValue = bodyMap.get(key);
+			// Exact names can be looked up directly, other name matchers use an index of
+			// normalized names that is only built if it is needed
+			if (child.getNameMatcher() == BuiltInNameMatcher.EXACT)
+				value = bodyMap.get(child.getParamPathPart());
+			else {
+				if (normalizedBodyMaps == null)
+					normalizedBodyMaps = new HashMap<>(2);
 
-					if (!Map.class.isAssignableFrom(childValue.getClass()))
-						throw new IllegalArgumentException(
-								"Value found at \"" + String.join(".", currentPath) + "\" is not an object");
+				value = normalizedBodyMaps
+						.computeIfAbsent(child.getNameMatcher(), nameMatcher -> normalizeKeys(bodyMap, nameMatcher))
+						.get(child.getNormalizedParamPathPart());
+			}
 
-					bodyMap = (Map<String, Object>) bodyMap.get(key);
+			if (value != null)
+				readValue(child, value, extraction);
+		}
+	}
+
+	private static Map<String, Object> normalizeKeys(Map<String, Object> bodyMap, NameMatcher nameMatcher) {
+		Map<String, Object> normalizedBodyMap = new HashMap<>();
+
+		for (Map.Entry<String, Object> entry : bodyMap.entrySet())
+			normalizedBodyMap.putIfAbsent(nameMatcher.normalize(entry.getKey()), entry.getValue());
+
+		return normalizedBodyMap;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void readValue(Node node, Object value, Extraction extraction) {
+		for (CompiledBodyParam bodyParam : node.getBodyParams())
+			extraction.putValue(bodyParam, value);
+
+		if (!node.hasChildren() || value == null)
+			return;
+
+		if (node.hasNamedChildren()) {
+			if (!(value instanceof Map))
+				throw new IllegalArgumentException("Value found at \"" + node.getParamPath() + "\" is not an object");
+
+			readObject(node, (Map<String, Object>) value, extraction);
+		}
+
+		// A value that is not an array is read like an array of that single value,
+		// which is how a single XML element would be read
+		if (node.hasElementChildren()) {
+			if (value instanceof List) {
+				List<Object> elements = (List<Object>) value;
+
+				for (int i = 0; i < elements.size(); i++)
+					readElement(node, i, elements.get(i), extraction);
+			} else
+				readElement(node, 0, value, extraction);
+		}
+	}
+
+	private void readElement(Node node, int index, Object element, Extraction extraction) {
+		for (Node child : node.getElementChildren(index))
+			readValue(child, element, extraction);
+	}
+
+	/**
+	 * Reads a value of a field that was already read before in the same object,
+	 * which can only happen if the data format has repeated fields. The values of
+	 * all occurrences are collected in a list, and every occurrence is read as the
+	 * next element for paths that select array elements.
+	 */
+	private void readRepeatedValue(Node node, Object value, int occurrence, Extraction extraction) {
+		// A list of values cannot be read like an object
+		if (node.hasNamedChildren())
+			throw new IllegalArgumentException("Value found at \"" + node.getParamPath() + "\" is not an object");
+
+		for (CompiledBodyParam bodyParam : node.getBodyParams())
+			extraction.addRepeatedValue(bodyParam, value);
+
+		readElement(node, occurrence, value, extraction);
+	}
+
+	/**
+	 * Streams the fields of the object the parser is positioned in. Returns
+	 * {@code true} if reading stopped before the end of the object because all
+	 * parameter values are found.
+	 */
+	private boolean streamObject(JsonParser parser, Node node, Extraction extraction) throws IOException {
+		Map<Node, Integer> occurrences = null;
+		String lastMatchedKey = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String key = parser.getCurrentName();
+
+			// Once all parameters are found only a repetition of the last matched field
+			// can still add values, anything else ends reading the request body
+			if (extraction.repeatedFields && extraction.isComplete() && !key.equals(lastMatchedKey))
+				return true;
+
+			JsonToken valueToken = parser.nextToken();
+
+			Node matchingChild = null;
+			int matchingChildCount = 0;
+
+			for (NameMatcher nameMatcher : node.getChildNameMatchers()) {
+				Node child = node.getChild(key, nameMatcher);
+
+				if (child != null) {
+					matchingChild = child;
+					matchingChildCount++;
 				}
+			}
+
+			// Values that are not on the path of any parameter are never decoded
+			if (matchingChildCount == 0) {
+				parser.skipChildren();
+				continue;
+			}
+
+			lastMatchedKey = key;
+
+			if (extraction.repeatedFields && occurrences == null)
+				occurrences = new HashMap<>();
+
+			if (matchingChildCount == 1) {
+				int occurrence = occurrences == null ? 0 : occurrences.merge(matchingChild, 1, Integer::sum) - 1;
+
+				if (streamValue(parser, valueToken, matchingChild, occurrence, extraction))
+					return true;
+			} else {
+				// The value is shared by multiple paths, so it is decoded as a whole and read
+				// like a fully decoded request body would be
+				Object value = parser.readValueAs(Object.class);
+
+				for (NameMatcher nameMatcher : node.getChildNameMatchers()) {
+					Node child = node.getChild(key, nameMatcher);
+
+					if (child == null)
+						continue;
+
+					int occurrence = occurrences == null ? 0 : occurrences.merge(child, 1, Integer::sum) - 1;
+
+					if (occurrence == 0)
+						readValue(child, value, extraction);
+					else
+						readRepeatedValue(child, value, occurrence, extraction);
+				}
+			}
+
+			// Repeated fields can still add values until the end of the object
+			if (!extraction.repeatedFields) {
+				// A key that matches a single child is not normalized again
+				if (matchingChildCount == 1)
+					extraction.completeMultiValued(matchingChild);
+				else
+					for (NameMatcher nameMatcher : node.getChildNameMatchers()) {
+						Node child = node.getChild(key, nameMatcher);
+
+						if (child != null)
+							extraction.completeMultiValued(child);
+					}
+
+				// Stop reading the request body as soon as all parameters are found
+				if (extraction.isComplete())
+					return true;
+			}
+		}
+
+		if (occurrences != null)
+			for (Node child : occurrences.keySet())
+				extraction.completeMultiValued(child);
+
+		return false;
+	}
+
+	private boolean streamArray(JsonParser parser, Node node, Extraction extraction) throws IOException {
+		int index = 0;
+		JsonToken token;
+
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (streamElement(parser, node, index++, token, extraction))
+				return true;
+
+			// Stop reading the request body as soon as all parameters are found
+			if (!extraction.repeatedFields && extraction.isComplete())
+				return true;
+		}
+
+		return false;
+	}
+
+	private boolean streamElement(JsonParser parser, Node node, int index, JsonToken token, Extraction extraction)
+			throws IOException {
+		List<Node> matchingChildren = node.getElementChildren(index);
+
+		// Elements that are not selected by any parameter are never decoded
+		if (matchingChildren.isEmpty()) {
+			parser.skipChildren();
+			return false;
+		}
+
+		if (matchingChildren.size() == 1) {
+			if (streamValue(parser, token, matchingChildren.get(0), 0, extraction))
+				return true;
+		} else {
+			Object value = parser.readValueAs(Object.class);
+
+			for (Node child : matchingChildren)
+				readValue(child, value, extraction);
+		}
+
+		for (Node child : matchingChildren)
+			extraction.completeMultiValued(child);
+
+		return false;
+	}
+
+	/**
+	 * Streams the value the parser is positioned at, which is only on the path of
+	 * the given node. Returns {@code true} if reading stopped because all parameter
+	 * values are found.
+	 */
+	private boolean streamValue(JsonParser parser, JsonToken token, Node node, int occurrence,
+			Extraction extraction) throws IOException {
+		boolean pathOnly = node.getBodyParams().isEmpty();
+
+		// Nothing below a null value can be selected
+		if (pathOnly && token == JsonToken.VALUE_NULL)
+			return false;
+
+		if (pathOnly && occurrence == 0 && token == JsonToken.START_OBJECT && !node.hasElementChildren())
+			return streamObject(parser, node, extraction);
+
+		if (pathOnly && occurrence == 0 && token == JsonToken.START_ARRAY && !node.hasNamedChildren())
+			return streamArray(parser, node, extraction);
+
+		// Any other value of a node that only selects array elements is read as the
+		// element at the index of its occurrence
+		if (pathOnly && !node.hasNamedChildren() && token != JsonToken.START_ARRAY)
+			return streamElement(parser, node, occurrence, token, extraction);
+
+		if (extraction.requestBodyMapper != null && occurrence == 0 && !node.hasChildren()
+				&& token != JsonToken.VALUE_NULL && isBindable(node, extraction.repeatedFields)) {
+			bindValue(parser, node, extraction);
+			return false;
+		}
+
+		// The value is either addressed by a parameter or not of the type its path
+		// expects. In both cases it is decoded as a whole and read like a fully
+		// decoded request body would be.
+		Object value = parser.readValueAs(Object.class);
+
+		if (occurrence == 0)
+			readValue(node, value, extraction);
+		else
+			readRepeatedValue(node, value, occurrence, extraction);
+
+		return false;
+	}
+
+	/**
+	 * Whether the value of a node can be bound to the type of its parameters
+	 * straight from the token stream. Parameters that select multiple values are
+	 * never bound directly, and if fields can be repeated neither are parameters
+	 * that can hold a list, as their values are only known once all repetitions
+	 * are read.
+	 */
+	private static boolean isBindable(Node node, boolean repeatedFields) {
+		JavaType paramType = node.getBodyParams().get(0).getParamType();
+
+		if (repeatedFields && (paramType.isContainerType() || paramType.isJavaLangObject()))
+			return false;
+
+		for (CompiledBodyParam bodyParam : node.getBodyParams())
+			if (bodyParam.isMultiValued() || !bodyParam.getParamType().equals(paramType))
+				return false;
+
+		return true;
+	}
+
+	private static void bindValue(JsonParser parser, Node node, Extraction extraction) throws IOException {
+		CompiledBodyParam firstBodyParam = node.getBodyParams().get(0);
+		BoundValue value;
+
+		try {
+			// Scalar tokens are read straight to the parameter type
+			ScalarConverter scalarConverter = firstBodyParam.getScalarConverter();
+			Object scalarValue = scalarConverter != null ? scalarConverter.fromToken(parser) : null;
+
+			value = new BoundValue(scalarValue != null ? scalarValue
+					: extraction.requestBodyMapper.readValue(parser, firstBodyParam.getParamType()));
+		} catch (JsonMappingException e) {
+			// Report values that cannot be bound like failed conversions
+			throw new IllegalArgumentException(e.getMessage(), e);
 		}
 
-		return Optional.empty();
+		for (CompiledBodyParam bodyParam : node.getBodyParams())
+			extraction.putValue(bodyParam, value);
 	}
 
-	private List<String> validateAndCompileParamPath(String paramPath) {
+	/**
+	 * Compiles a parameter path into its segments. Segments are separated by
+	 * periods and every segment starts with a field name, optionally followed by
+	 * any number of array element selectors: an index ({@code [0]}), a wildcard
+	 * ({@code [*]}) or a slice with an exclusive end ({@code [1:3]}, {@code [2:]},
+	 * {@code [:2]}). Compiled paths are cached.
+	 */
+	List<BodyParamPathSegment> compileParamPath(String paramPath) {
 
 		Assert.notNull(paramPath, "Parameter name provided was null");
 
+		List<BodyParamPathSegment> paramPathSegments = this.compiledParamPaths.get(paramPath);
+
+		if (paramPathSegments == null) {
+			paramPathSegments = parseParamPath(paramPath);
+
+			// Paths of handler method parameters are compiled once, the bound only guards
+			// against paths passed to readBodyParam that are unique per call
+			if (this.compiledParamPaths.size() < this.maxCachedParamPaths)
+				this.compiledParamPaths.put(paramPath, paramPathSegments);
+		}
+
+		return paramPathSegments;
+	}
+
+	private static List<BodyParamPathSegment> parseParamPath(String paramPath) {
+
 		if (paramPath.isBlank())
 			throw new IllegalArgumentException(
 					"Path parameter for @" + BodyParam.class.getSimpleName() + " is null or blank");
@@ -81,14 +519,180 @@ public class BodyParamReader {
 			throw new IllegalArgumentException(
 					"Path parameter for @" + BodyParam.class.getSimpleName() + " cannot begin or end with a period");
 
-		final String[] paramPathParts = paramPath.split("\\.");
+		List<BodyParamPathSegment> paramPathSegments = new ArrayList<>();
+
+		for (String paramPathPart : paramPath.split("\\.")) {
+			int selectorIndex = paramPathPart.indexOf('[');
+			String name = selectorIndex < 0 ? paramPathPart : paramPathPart.substring(0, selectorIndex);
 
-		for (String paramNamePart : paramPathParts)
-			if (paramNamePart.isBlank())
-				throw new IllegalArgumentException(
-						"Path " + paramPath + " is not a valid path value for @" + BodyParam.class.getSimpleName());
+			if (name.isBlank() || name.indexOf(']') >= 0)
+				throw invalidParamPath(paramPath);
 
-		return Arrays.stream(paramPathParts)
-				.collect(Collectors.toList());
+			paramPathSegments.add(BodyParamPathSegment.name(name));
+
+			while (selectorIndex >= 0 && selectorIndex < paramPathPart.length()) {
+				int selectorEnd = paramPathPart.indexOf(']', selectorIndex);
+
+				if (paramPathPart.charAt(selectorIndex) != '[' || selectorEnd < 0)
+					throw invalidParamPath(paramPath);
+
+				paramPathSegments.add(parseSelector(paramPathPart.substring(selectorIndex + 1, selectorEnd), paramPath));
+				selectorIndex = selectorEnd + 1;
+			}
+		}
+
+		return paramPathSegments;
+	}
+
+	private static BodyParamPathSegment parseSelector(String selector, String paramPath) {
+		if (selector.equals("*"))
+			return BodyParamPathSegment.slice(null, null);
+
+		int separatorIndex = selector.indexOf(':');
+
+		if (separatorIndex < 0) {
+			int index = parseIndex(selector, paramPath);
+
+			// The segment selects the range [index, index + 1), which cannot be represented for the largest int
+			if (index == Integer.MAX_VALUE)
+				throw invalidParamPath(paramPath);
+
+			return BodyParamPathSegment.index(index);
+		}
+
+		String start = selector.substring(0, separatorIndex);
+		String end = selector.substring(separatorIndex + 1);
+		Integer startIndex = start.isEmpty() ? null : parseIndex(start, paramPath);
+		Integer endIndex = end.isEmpty() ? null : parseIndex(end, paramPath);
+
+		if (endIndex != null && endIndex <= (startIndex == null ? 0 : startIndex))
+			throw invalidParamPath(paramPath);
+
+		return BodyParamPathSegment.slice(startIndex, endIndex);
+	}
+
+	private static int parseIndex(String index, String paramPath) {
+		if (index.isEmpty() || !index.chars().allMatch(c -> c >= '0' && c <= '9'))
+			throw invalidParamPath(paramPath);
+
+		try {
+			return Integer.parseInt(index);
+		} catch (NumberFormatException e) {
+			throw invalidParamPath(paramPath);
+		}
+	}
+
+	private static IllegalArgumentException invalidParamPath(String paramPath) {
+		return new IllegalArgumentException(
+				"Path " + paramPath + " is not a valid path value for @" + BodyParam.class.getSimpleName());
+	}
+
+	/**
+	 * State of extracting the values of all parameters of a trie from a single
+	 * request body. Values of parameters that select multiple values are collected
+	 * separately until all of them are read.
+	 */
+	private static final class Extraction {
+
+		final StreamingRequestBodyMapper requestBodyMapper;
+		final boolean repeatedFields;
+		final Map<CompiledBodyParam, Object> values = new HashMap<>();
+
+		private final Map<CompiledBodyParam, List<Object>> multiValues = new HashMap<>(0);
+		private final Map<CompiledBodyParam, List<Object>> repeatedValues = new HashMap<>(0);
+		private final Set<CompiledBodyParam> completedMultiValued = new HashSet<>(0);
+		private int remaining;
+
+		Extraction(BodyParamPathTrie trie, StreamingRequestBodyMapper requestBodyMapper) {
+			this.requestBodyMapper = requestBodyMapper;
+			this.repeatedFields = requestBodyMapper != null && requestBodyMapper.hasRepeatedFields();
+			this.remaining = trie.size();
+		}
+
+		void putValue(CompiledBodyParam bodyParam, Object value) {
+			if (bodyParam.isMultiValued())
+				this.multiValues.computeIfAbsent(bodyParam, p -> new ArrayList<>()).add(value);
+			else if (!this.values.containsKey(bodyParam)) {
+				this.values.put(bodyParam, value);
+				this.remaining--;
+			}
+		}
+
+		/**
+		 * Adds the value of a repeated field to the value that was read for the
+		 * parameter before, collecting all values of the field in a list like
+		 * {@link StreamingRequestBodyMapper#hasRepeatedFields()} describes.
+		 */
+		void addRepeatedValue(CompiledBodyParam bodyParam, Object value) {
+			if (bodyParam.isMultiValued()) {
+				putValue(bodyParam, value);
+				return;
+			}
+
+			List<Object> repeatedValues = this.repeatedValues.get(bodyParam);
+
+			if (repeatedValues == null) {
+				Object firstValue = this.values.get(bodyParam);
+
+				if (firstValue instanceof BoundValue)
+					throw new IllegalArgumentException(
+							"Value found at \"" + bodyParam.getParamPath() + "\" is repeated");
+
+				repeatedValues = new ArrayList<>();
+				repeatedValues.add(firstValue);
+				this.repeatedValues.put(bodyParam, repeatedValues);
+				this.values.put(bodyParam, repeatedValues);
+			}
+
+			repeatedValues.add(value);
+		}
+
+		/**
+		 * Marks the parameters that select multiple values below the given node as
+		 * complete once the value of the node is read.
+		 */
+		void completeMultiValued(Node node) {
+			for (CompiledBodyParam bodyParam : node.getMultiValuedBodyParams())
+				if (this.completedMultiValued.add(bodyParam)) {
+					List<Object> values = this.multiValues.get(bodyParam);
+
+					if (values != null)
+						this.values.put(bodyParam, values);
+
+					this.remaining--;
+				}
+		}
+
+		boolean isComplete() {
+			return this.remaining == 0;
+		}
+
+		/**
+		 * Returns the values of all parameters that were found. Parameters that select
+		 * multiple values but did not match any value are not included.
+		 */
+		Map<CompiledBodyParam, Object> finish() {
+			for (Map.Entry<CompiledBodyParam, List<Object>> entry : this.multiValues.entrySet())
+				this.values.putIfAbsent(entry.getKey(), entry.getValue());
+
+			return this.values;
+		}
+	}
+
+	/**
+	 * A value that has already been bound to the type of the parameters it was
+	 * read for.
+	 */
+	static final class BoundValue {
+
+		private final Object value;
+
+		BoundValue(Object value) {
+			this.value = value;
+		}
+
+		Object getValue() {
+			return this.value;
+		}
 	}
 }
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+/**
+ * Iterator over the records of a batch parameter that binds every record when
+ * it is requested, reading the request body no further than the end of that
+ * record. The parser is closed once all records are read, or when the iterator
+ * is closed before that.
+ */
+final class BodyParamRecordIterator implements Iterator<Object>, Closeable {
+
+	private final JsonParser parser;
+
+	private final StreamingRequestBodyMapper requestBodyMapper;
+
+	private final JavaType recordType;
+
+	private final boolean rootValues;
+
+	private boolean hasNext;
+
+	private boolean closed;
+
+	/**
+	 * Creates an iterator over the elements of the array the parser is positioned
+	 * at, or over the root values of the request body starting with the one the
+	 * parser is positioned at.
+	 */
+	BodyParamRecordIterator(JsonParser parser, StreamingRequestBodyMapper requestBodyMapper, JavaType recordType,
+			boolean rootValues) {
+		this.parser = parser;
+		this.requestBodyMapper = requestBodyMapper;
+		this.recordType = recordType;
+		this.rootValues = rootValues;
+		this.hasNext = rootValues;
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.hasNext || this.closed)
+			return this.hasNext;
+
+		try {
+			JsonToken token = this.parser.nextToken();
+
+			if (token == null || (token == JsonToken.END_ARRAY && !this.rootValues))
+				close();
+			else
+				this.hasNext = true;
+		} catch (IOException e) {
+			throw invalidRecord(e);
+		}
+
+		return this.hasNext;
+	}
+
+	@Override
+	public Object next() {
+		if (!hasNext())
+			throw new NoSuchElementException();
+
+		this.hasNext = false;
+
+		try {
+			return this.requestBodyMapper.readValue(this.parser, this.recordType);
+		} catch (IOException e) {
+			throw invalidRecord(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.closed)
+			return;
+
+		this.closed = true;
+		this.hasNext = false;
+
+		try {
+			this.parser.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	Stream<Object> stream() {
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+				.onClose(this::close);
+	}
+
+	// Records are read while the handler method runs, so an invalid record ends
+	// the request like an invalid value of any other parameter would
+	private RuntimeException invalidRecord(IOException e) {
+		close();
+		RequestBodyLimits.throwIfExceeded(e);
+
+		if (e instanceof JsonMappingException)
+			return new IllegalArgumentException(e.getMessage(), e);
+		if (e instanceof JsonProcessingException)
+			return new IllegalArgumentException("Request body is not valid and cannot be decoded", e);
+
+		return new UncheckedIOException(e);
+	}
+}
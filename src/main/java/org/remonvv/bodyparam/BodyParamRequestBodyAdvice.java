@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Shares the request body between {@code @RequestBody} arguments and
+ * {@code @BodyParam} arguments of the same handler method. Whichever of them
+ * is resolved first reads the request body, the other one is handed the bytes
+ * that were read rather than an exhausted input stream.
+ */
+@ControllerAdvice
+class BodyParamRequestBodyAdvice extends RequestBodyAdviceAdapter {
+
+	private final Map<Method, Boolean> bodyParamMethods = new ConcurrentHashMap<>();
+
+	private final RequestBodyLimits requestBodyLimits;
+
+	private final Supplier<List<HttpMessageConverter<?>>> messageConverters;
+
+	BodyParamRequestBodyAdvice(RequestBodyLimits requestBodyLimits,
+			Supplier<List<HttpMessageConverter<?>>> messageConverters) {
+		this.requestBodyLimits = requestBodyLimits;
+		this.messageConverters = messageConverters;
+	}
+
+	// Request bodies of handler methods without @BodyParam arguments are left
+	// alone, as there is nothing to share them with
+	@Override
+	public boolean supports(MethodParameter methodParameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType) {
+		Method method = methodParameter.getMethod();
+
+		if (method == null)
+			return false;
+
+		Boolean hasBodyParams = this.bodyParamMethods.get(method);
+
+		if (hasBodyParams == null) {
+			hasBodyParams = hasBodyParams(method);
+			this.bodyParamMethods.putIfAbsent(method, hasBodyParams);
+		}
+
+		return hasBodyParams;
+	}
+
+	@Override
+	public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+			Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+		if (requestAttributes == null)
+			return inputMessage;
+
+		// The request body is buffered with the limits of the handler method, as the
+		// @BodyParam argument resolver would read it
+		RequestBodyLimits requestBodyLimits = this.requestBodyLimits.override(parameter);
+		BodyParamCachingRequestWrapper cachingRequest = getCachingRequest(requestAttributes);
+
+		// Requests wrapped by the caching filter replay the request body by themselves
+		if (cachingRequest != null) {
+			if (cachingRequest.getCachedBody() == null)
+				cachingRequest.setRequestBodyLimits(requestBodyLimits);
+
+			return inputMessage;
+		}
+
+		byte[] requestBody = (byte[]) requestAttributes.getAttribute(BodyParamArgumentResolver.REQUEST_BODY_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+
+		if (requestBody == null) {
+			requestBodyLimits.checkBodySize(inputMessage.getHeaders().getContentLength());
+
+			try {
+				requestBody = requestBodyLimits.limit(inputMessage.getBody()).readAllBytes();
+			} catch (IOException e) {
+				RequestBodyLimits.throwIfExceeded(e);
+				throw e;
+			}
+
+			requestAttributes.setAttribute(BodyParamArgumentResolver.REQUEST_BODY_ATTRIBUTE, requestBody,
+					RequestAttributes.SCOPE_REQUEST);
+		}
+
+		return new CachedBodyInputMessage(inputMessage.getHeaders(), requestBody);
+	}
+
+	// A request body that was read by the @BodyParam argument resolver looks empty
+	// to the message converters, so it is converted from the bytes that were read
+	@Override
+	@SuppressWarnings("unchecked")
+	public Object handleEmptyBody(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+			Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+		RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+		if (requestAttributes == null)
+			return body;
+
+		byte[] requestBody = (byte[]) requestAttributes.getAttribute(BodyParamArgumentResolver.REQUEST_BODY_ATTRIBUTE,
+				RequestAttributes.SCOPE_REQUEST);
+
+		if (requestBody == null || requestBody.length == 0)
+			return body;
+
+		HttpInputMessage cachedInputMessage = new CachedBodyInputMessage(inputMessage.getHeaders(), requestBody);
+
+		try {
+			for (HttpMessageConverter<?> messageConverter : this.messageConverters.get())
+				if (messageConverter.getClass() == converterType) {
+					if (messageConverter instanceof GenericHttpMessageConverter)
+						return ((GenericHttpMessageConverter<?>) messageConverter).read(targetType,
+								parameter.getContainingClass(), cachedInputMessage);
+
+					return ((HttpMessageConverter<Object>) messageConverter)
+							.read((Class<Object>) ResolvableType.forType(targetType).toClass(), cachedInputMessage);
+				}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return body;
+	}
+
+	private static boolean hasBodyParams(Method method) {
+		for (Parameter parameter : method.getParameters())
+			if (parameter.isAnnotationPresent(BodyParam.class))
+				return true;
+
+		return false;
+	}
+
+	private static BodyParamCachingRequestWrapper getCachingRequest(RequestAttributes requestAttributes) {
+		return requestAttributes instanceof ServletRequestAttributes
+				? WebUtils.getNativeRequest(((ServletRequestAttributes) requestAttributes).getRequest(),
+						BodyParamCachingRequestWrapper.class)
+				: null;
+	}
+
+	private static final class CachedBodyInputMessage implements HttpInputMessage {
+
+		private final HttpHeaders headers;
+
+		private final byte[] body;
+
+		CachedBodyInputMessage(HttpHeaders headers, byte[] body) {
+			this.headers = headers;
+			this.body = body;
+		}
+
+		@Override
+		public InputStream getBody() {
+			return new ByteArrayInputStream(this.body);
+		}
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+	}
+}
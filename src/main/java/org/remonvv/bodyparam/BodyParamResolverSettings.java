@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+
+/**
+ * The collaborators and settings of a {@code @BodyParam} argument resolver.
+ * Anything that is not set defaults to no metrics, the JSON and XML request
+ * body mappers, unlimited request bodies and the default name matching mode.
+ */
+final class BodyParamResolverSettings {
+
+	private BodyParamMetrics metrics = BodyParamMetrics.NONE;
+	private RequestBodyMapperRegistry requestBodyMapperRegistry;
+	private RequestBodyLimits requestBodyLimits = RequestBodyLimits.UNLIMITED;
+	private NameMatchingMode nameMatchingMode = NameMatching.DEFAULT_MODE;
+	private List<NameMatcher> nameMatchers = List.of();
+
+	BodyParamResolverSettings metrics(BodyParamMetrics metrics) {
+		this.metrics = metrics;
+		return this;
+	}
+
+	BodyParamResolverSettings requestBodyMappers(List<RequestBodyMapper> requestBodyMappers) {
+		return requestBodyMapperRegistry(new RequestBodyMapperRegistry(requestBodyMappers));
+	}
+
+	BodyParamResolverSettings requestBodyMapperRegistry(RequestBodyMapperRegistry requestBodyMapperRegistry) {
+		this.requestBodyMapperRegistry = requestBodyMapperRegistry;
+		return this;
+	}
+
+	BodyParamResolverSettings requestBodyLimits(RequestBodyLimits requestBodyLimits) {
+		this.requestBodyLimits = requestBodyLimits;
+		return this;
+	}
+
+	BodyParamResolverSettings nameMatchingMode(NameMatchingMode nameMatchingMode) {
+		this.nameMatchingMode = nameMatchingMode;
+		return this;
+	}
+
+	BodyParamResolverSettings nameMatchers(Collection<NameMatcher> nameMatchers) {
+		this.nameMatchers = List.copyOf(nameMatchers);
+		return this;
+	}
+
+	BodyParamMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	RequestBodyMapperRegistry getRequestBodyMapperRegistry() {
+		if (this.requestBodyMapperRegistry == null)
+			this.requestBodyMapperRegistry = new RequestBodyMapperRegistry(
+					List.of(new JsonRequestBodyMapper(), new XmlRequestBodyMapper()));
+
+		return this.requestBodyMapperRegistry;
+	}
+
+	RequestBodyLimits getRequestBodyLimits() {
+		return this.requestBodyLimits;
+	}
+
+	NameMatchingMode getNameMatchingMode() {
+		return this.nameMatchingMode;
+	}
+
+	List<NameMatcher> getNameMatchers() {
+		return this.nameMatchers;
+	}
+}
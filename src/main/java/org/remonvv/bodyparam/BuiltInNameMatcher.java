@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+/**
+ * Name matchers of the built-in name matching modes.
+ */
+enum BuiltInNameMatcher implements NameMatcher {
+
+	EXACT(NameMatchingMode.EXACT),
+	IGNORE_CASE(NameMatchingMode.IGNORE_CASE),
+	IGNORE_CASE_AND_NON_ALPHA_NUMERIC(NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC),
+	IGNORE_CASE_FORMAT(NameMatchingMode.IGNORE_CASE_FORMAT);
+
+	private final NameMatchingMode nameMatchingMode;
+
+	BuiltInNameMatcher(NameMatchingMode nameMatchingMode) {
+		this.nameMatchingMode = nameMatchingMode;
+	}
+
+	static BuiltInNameMatcher forMode(NameMatchingMode nameMatchingMode) {
+		for (BuiltInNameMatcher nameMatcher : values())
+			if (nameMatcher.nameMatchingMode == nameMatchingMode)
+				return nameMatcher;
+
+		throw new IllegalArgumentException("Name matching mode " + nameMatchingMode + " has no built-in name matcher");
+	}
+
+	/**
+	 * Returns the name matching mode of the given name matcher, which is
+	 * {@code CUSTOM} for name matchers that are not built in.
+	 */
+	static NameMatchingMode getMode(NameMatcher nameMatcher) {
+		return nameMatcher instanceof BuiltInNameMatcher ? ((BuiltInNameMatcher) nameMatcher).nameMatchingMode
+				: NameMatchingMode.CUSTOM;
+	}
+
+	@Override
+	public String normalize(String name) {
+		return NameMatchingUtils.normalizeName(name, this.nameMatchingMode);
+	}
+
+	// Names are compared in place rather than through their normalized forms
+	@Override
+	public boolean matches(String name, String otherName) {
+		return NameMatchingUtils.isNameMatching(name, otherName, this.nameMatchingMode);
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.core.MethodParameter;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+/**
+ * Resolution plan for a single {@code @BodyParam} annotated method parameter.
+ * Everything that can be derived from the method signature and annotations is
+ * resolved once when the plan is compiled so that resolving an argument does
+ * not require any reflection or annotation parsing.
+ */
+final class CompiledBodyParam {
+
+	private final MethodParameter parameter;
+	private final String paramPath;
+	private final List<BodyParamPathSegment> paramPathSegments;
+	private final boolean multiValued;
+	private final boolean batch;
+	private final boolean lazy;
+	private final boolean optional;
+	private final NameMatcher nameMatcher;
+	private final NameMatchingMode nameMatchingMode;
+	private final JavaType paramType;
+	private final JavaType recordType;
+	private final Optional<Object> defaultValue;
+	private final boolean required;
+	private final ScalarConverter scalarConverter;
+	private final RequestBodyLimits requestBodyLimits;
+
+	CompiledBodyParam(MethodParameter parameter, String paramPath, List<BodyParamPathSegment> paramPathSegments,
+			NameMatchingMode nameMatchingMode, JavaType paramType, Optional<Object> defaultValue, boolean required) {
+		this(parameter, paramPath, paramPathSegments, NameMatcher.of(nameMatchingMode), paramType, defaultValue,
+				required, RequestBodyLimits.UNLIMITED);
+	}
+
+	CompiledBodyParam(MethodParameter parameter, String paramPath, List<BodyParamPathSegment> paramPathSegments,
+			NameMatcher nameMatcher, JavaType paramType, Optional<Object> defaultValue, boolean required,
+			RequestBodyLimits requestBodyLimits) {
+		this.parameter = parameter;
+		this.paramPath = paramPath;
+		this.paramPathSegments = List.copyOf(paramPathSegments);
+		this.multiValued = paramPathSegments.stream().anyMatch(BodyParamPathSegment::isMultiValued);
+		this.nameMatcher = nameMatcher;
+		this.nameMatchingMode = BuiltInNameMatcher.getMode(nameMatcher);
+		this.paramType = getValueType(paramType);
+		this.batch = isBatchType(paramType);
+		this.lazy = paramType.hasRawClass(Supplier.class);
+		this.optional = isOptionalType(paramType);
+		this.recordType = this.batch ? paramType.containedTypeOrUnknown(0) : null;
+		this.defaultValue = defaultValue;
+		this.required = required;
+		this.scalarConverter = ScalarConverters.getConverter(this.paramType.getRawClass());
+		this.requestBodyLimits = requestBodyLimits;
+	}
+
+	/**
+	 * Returns the type of the values of a parameter of the given declared type,
+	 * which is the type in the {@code Supplier} and {@code Optional} the
+	 * parameter may be declared as.
+	 */
+	static JavaType getValueType(JavaType paramType) {
+		JavaType valueType = paramType.hasRawClass(Supplier.class) ? paramType.containedTypeOrUnknown(0) : paramType;
+
+		return valueType.hasRawClass(Optional.class) ? valueType.containedTypeOrUnknown(0) : valueType;
+	}
+
+	static boolean isOptionalType(JavaType paramType) {
+		return (paramType.hasRawClass(Supplier.class) ? paramType.containedTypeOrUnknown(0) : paramType)
+				.hasRawClass(Optional.class);
+	}
+
+	static boolean isBatchType(JavaType paramType) {
+		return paramType.hasRawClass(Stream.class) || paramType.hasRawClass(Iterator.class);
+	}
+
+	MethodParameter getParameter() {
+		return this.parameter;
+	}
+
+	String getParamPath() {
+		return this.paramPath;
+	}
+
+	List<BodyParamPathSegment> getParamPathSegments() {
+		return this.paramPathSegments;
+	}
+
+	/**
+	 * Whether the path of the parameter selects multiple values, which are read
+	 * into a list in the order they appear in the request body.
+	 */
+	boolean isMultiValued() {
+		return this.multiValued;
+	}
+
+	/**
+	 * Whether the parameter is a {@code Stream} or {@code Iterator} of which the
+	 * records are bound one at a time while the request body is read.
+	 */
+	boolean isBatch() {
+		return this.batch;
+	}
+
+	/**
+	 * Whether the parameter is a {@code Supplier} that resolves its value once it
+	 * is first accessed.
+	 */
+	boolean isLazy() {
+		return this.lazy;
+	}
+
+	/**
+	 * Whether the value of the parameter is wrapped in an {@code Optional}, which
+	 * implies that the value is not required.
+	 */
+	boolean isOptional() {
+		return this.optional;
+	}
+
+	NameMatcher getNameMatcher() {
+		return this.nameMatcher;
+	}
+
+	NameMatchingMode getNameMatchingMode() {
+		return this.nameMatchingMode;
+	}
+
+	/**
+	 * Returns the type of the value of the parameter, which is the declared type
+	 * without the {@code Supplier} and {@code Optional} it may be wrapped in.
+	 */
+	JavaType getParamType() {
+		return this.paramType;
+	}
+
+	/**
+	 * Returns the type of the records of a batch parameter, or {@code null} if the
+	 * parameter is not a batch parameter.
+	 */
+	JavaType getRecordType() {
+		return this.recordType;
+	}
+
+	Optional<Object> getDefaultValue() {
+		return this.defaultValue;
+	}
+
+	boolean isRequired() {
+		return this.required;
+	}
+
+	/**
+	 * Returns the converter of the parameter type, or {@code null} if the
+	 * parameter is not of a scalar type.
+	 */
+	ScalarConverter getScalarConverter() {
+		return this.scalarConverter;
+	}
+
+	/**
+	 * Returns the limits of the request body of the handler method of the
+	 * parameter.
+	 */
+	RequestBodyLimits getRequestBodyLimits() {
+		return this.requestBodyLimits;
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.MediaType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records {@code @BodyParam} metrics as Micrometer timers named
+ * {@code bodyparam.<phase>} and the counters
+ * {@code bodyparam.missing.required} and {@code bodyparam.default.value}, all
+ * tagged with the handler method, the media type and, for argument level
+ * metrics, the name matching mode.
+ */
+public class MicrometerBodyParamMetrics implements BodyParamMetrics {
+
+	private static final String METER_NAME_PREFIX = "bodyparam.";
+
+	private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+	private final MeterRegistry meterRegistry;
+
+	public MicrometerBodyParamMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void recordPhase(Phase phase, Method handlerMethod, MediaType mediaType,
+			NameMatchingMode nameMatchingMode, long durationNanos) {
+
+		String name = METER_NAME_PREFIX + phase.name().toLowerCase(Locale.ROOT);
+
+		MeterKey key = new MeterKey(name, handlerMethod, mediaType, nameMatchingMode);
+		Timer timer = this.timers.get(key);
+
+		// Meters are registered without holding a lock of the map, registering the
+		// same meter twice returns the meter that is already registered
+		if (timer == null) {
+			timer = Timer.builder(key.name).tags(key.tags()).register(this.meterRegistry);
+			this.timers.putIfAbsent(key, timer);
+		}
+
+		timer.record(durationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordMissingRequiredValue(Method handlerMethod, MediaType mediaType,
+			NameMatchingMode nameMatchingMode) {
+		increment(METER_NAME_PREFIX + "missing.required", handlerMethod, mediaType, nameMatchingMode);
+	}
+
+	@Override
+	public void recordDefaultValue(Method handlerMethod, MediaType mediaType, NameMatchingMode nameMatchingMode) {
+		increment(METER_NAME_PREFIX + "default.value", handlerMethod, mediaType, nameMatchingMode);
+	}
+
+	private void increment(String name, Method handlerMethod, MediaType mediaType,
+			NameMatchingMode nameMatchingMode) {
+		MeterKey key = new MeterKey(name, handlerMethod, mediaType, nameMatchingMode);
+		Counter counter = this.counters.get(key);
+
+		if (counter == null) {
+			counter = Counter.builder(key.name).tags(key.tags()).register(this.meterRegistry);
+			this.counters.putIfAbsent(key, counter);
+		}
+
+		counter.increment();
+	}
+
+	private static final class MeterKey {
+
+		private final String name;
+		private final Method handlerMethod;
+		private final MediaType mediaType;
+		private final NameMatchingMode nameMatchingMode;
+
+		MeterKey(String name, Method handlerMethod, MediaType mediaType, NameMatchingMode nameMatchingMode) {
+			this.name = name;
+			this.handlerMethod = handlerMethod;
+			this.mediaType = mediaType;
+			this.nameMatchingMode = nameMatchingMode;
+		}
+
+		Tags tags() {
+			Tags tags = Tags.of(
+					"method", this.handlerMethod.getDeclaringClass().getSimpleName() + "." + this.handlerMethod.getName(),
+					"media.type", this.mediaType.getType() + "/" + this.mediaType.getSubtype());
+
+			return this.nameMatchingMode == null ? tags : tags.and("name.matching.mode", this.nameMatchingMode.name());
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other)
+				return true;
+			if (!(other instanceof MeterKey))
+				return false;
+
+			MeterKey otherKey = (MeterKey) other;
+
+			return this.name.equals(otherKey.name) && this.handlerMethod.equals(otherKey.handlerMethod)
+					&& this.mediaType.equals(otherKey.mediaType) && this.nameMatchingMode == otherKey.nameMatchingMode;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.name, this.handlerMethod, this.mediaType, this.nameMatchingMode);
+		}
+	}
+}
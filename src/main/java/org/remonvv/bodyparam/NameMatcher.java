@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+/**
+ * Strategy that decides whether a field name in the request body matches a
+ * name in the path of a {@code @BodyParam} parameter. Names match if and only
+ * if their normalized forms are equal, which allows the names in parameter
+ * paths to be normalized once when the parameter is compiled and field names
+ * to be matched through a single hash lookup.
+ *
+ * <p>
+ * Custom name matchers are selected with the {@code nameMatcher} attribute of
+ * {@link BodyParam} or the {@code matcher} attribute of {@link NameMatching}.
+ * Name matchers that are registered as beans are used as is, others are
+ * instantiated once through their default constructor.
+ *
+ * @author Remon van Vliet
+ */
+public interface NameMatcher {
+
+	/**
+	 * Normalizes a name such that two names match if and only if their normalized
+	 * forms are equal. Implementations should return names that are already in
+	 * their normalized form as is.
+	 */
+	String normalize(String name);
+
+	/**
+	 * Whether the given field name matches the given name of a parameter path.
+	 */
+	default boolean matches(String name, String otherName) {
+		return normalize(name).equals(normalize(otherName));
+	}
+
+	/**
+	 * Returns the built-in name matcher of the given name matching mode.
+	 */
+	static NameMatcher of(NameMatchingMode nameMatchingMode) {
+		return BuiltInNameMatcher.forMode(nameMatchingMode);
+	}
+}
@@ -21,6 +21,7 @@
  */
 package org.remonvv.bodyparam;
 
+import static org.remonvv.bodyparam.NameMatchingMode.DEFAULT;
 import static org.remonvv.bodyparam.NameMatchingMode.EXACT;
 
 import java.lang.annotation.Documented;
@@ -42,14 +43,24 @@ import org.springframework.core.annotation.AliasFor;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface NameMatching {
+	/**
+	 * Name matching mode of parameters without any name matching configuration,
+	 * unless overridden by the {@code bodyparam.name-matching-mode} property.
+	 */
 	final static NameMatchingMode DEFAULT_MODE = EXACT;
 
 	@AliasFor("value")
-	NameMatchingMode mode() default EXACT;
+	NameMatchingMode mode() default DEFAULT;
 
 	/**
 	 * Alias for the mode attribute.
 	 */
 	@AliasFor("mode")
-	NameMatchingMode value() default EXACT;
+	NameMatchingMode value() default DEFAULT;
+
+	/**
+	 * Custom name matcher to use instead of one of the built-in name matching
+	 * modes.
+	 */
+	Class<? extends NameMatcher> matcher() default NameMatcher.class;
 }
@@ -24,9 +24,9 @@ package org.remonvv.bodyparam;
 /**
  * <p>
  * Name matching mode is used to configure the criteria on which a field in the
- * request body is matched against the given path. There are three modes:
- * {@code EXACT}, {@code IGNORE_CASE} and
- * {@code IGNORE_CASE_AND_NON_ALPHA_NUMERIC}.
+ * request body is matched against the given path. There are four built-in
+ * modes: {@code EXACT}, {@code IGNORE_CASE},
+ * {@code IGNORE_CASE_AND_NON_ALPHA_NUMERIC} and {@code IGNORE_CASE_FORMAT}.
  *
  * <p>
  * {@code EXACT} based matching requires the body request field name to exactly
@@ -39,6 +39,16 @@ package org.remonvv.bodyparam;
  * {@code IGNORE_CASE_AND_NON_ALPHA_NUMERIC} is both case insensitive and
  * ignores any characters that are not alpha numeric characters.
  *
+ * <p>
+ * {@code IGNORE_CASE_FORMAT} matches names that consist of the same words in
+ * a different case format, such as {@code orderId}, {@code OrderId},
+ * {@code order_id}, {@code ORDER_ID} and {@code order-id}. Unlike
+ * {@code IGNORE_CASE} it does not match {@code orderid}.
+ *
+ * <p>
+ * {@code CUSTOM} is the mode of parameters that are matched by a custom
+ * {@link NameMatcher}, it cannot be used without one.
+ *
  * @author Remon van Vliet
  */
 public enum NameMatchingMode {
@@ -46,5 +56,7 @@ public enum NameMatchingMode {
 	DEFAULT,
 	EXACT,
 	IGNORE_CASE,
-	IGNORE_CASE_AND_NON_ALPHA_NUMERIC
+	IGNORE_CASE_AND_NON_ALPHA_NUMERIC,
+	IGNORE_CASE_FORMAT,
+	CUSTOM
 }
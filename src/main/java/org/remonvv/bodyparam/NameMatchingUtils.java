@@ -34,16 +34,161 @@ public abstract class NameMatchingUtils {
 			return a.equalsIgnoreCase(b);
 		case IGNORE_CASE_AND_NON_ALPHA_NUMERIC:
 			return equalsIgnoreCaseAndNonLiterals(a, b);
+		case IGNORE_CASE_FORMAT:
+			return toLowerSnakeCase(a).equals(toLowerSnakeCase(b));
 		default:
 			throw new IllegalArgumentException(
 					"Name matching mode " + nameMatchingMode + " is not currently supported.");
 		}
 	}
 
+	/**
+	 * Normalizes a name such that two names match in the given name matching mode
+	 * if and only if their normalized forms are equal. This allows names to be
+	 * matched through hash based lookups rather than pairwise comparison. Names
+	 * that are already in their normalized form are returned as is.
+	 */
+	static String normalizeName(String name, NameMatchingMode nameMatchingMode) {
+		switch (nameMatchingMode) {
+		case EXACT:
+			return name;
+		case IGNORE_CASE:
+			return foldCase(name);
+		case IGNORE_CASE_AND_NON_ALPHA_NUMERIC:
+			return foldCaseAndRemoveNonAlphaNumerics(name);
+		case IGNORE_CASE_FORMAT:
+			return toLowerSnakeCase(name);
+		default:
+			throw new IllegalArgumentException(
+					"Name matching mode " + nameMatchingMode + " is not currently supported.");
+		}
+	}
+
+	private static String foldCase(String name) {
+		int i = 0;
+
+		while (i < name.length() && foldCase(name.charAt(i)) == name.charAt(i))
+			i++;
+
+		if (i == name.length())
+			return name;
+
+		char[] chars = name.toCharArray();
+
+		for (; i < chars.length; i++)
+			chars[i] = foldCase(chars[i]);
+
+		return new String(chars);
+	}
+
+	private static String foldCaseAndRemoveNonAlphaNumerics(String name) {
+		int i = 0;
+
+		while (i < name.length() && isAlphaNumeric(name.charAt(i))
+				&& toLowerCaseAlphaNumeric(name.charAt(i)) == name.charAt(i))
+			i++;
+
+		if (i == name.length())
+			return name;
+
+		char[] chars = new char[name.length()];
+		name.getChars(0, i, chars, 0);
+		int length = i;
+
+		for (; i < name.length(); i++)
+			if (isAlphaNumeric(name.charAt(i)))
+				chars[length++] = toLowerCaseAlphaNumeric(name.charAt(i));
+
+		return new String(chars, 0, length);
+	}
+
+	/**
+	 * Splits a name into words at underscores, hyphens and changes from lower to
+	 * upper case, and joins the lower case words with underscores. Acronyms are
+	 * words of their own, so both {@code userID} and {@code UserId} become
+	 * {@code user_id}.
+	 */
+	private static String toLowerSnakeCase(String name) {
+		if (isLowerSnakeCase(name))
+			return name;
+
+		StringBuilder snakeCase = new StringBuilder(name.length() + 4);
+		boolean wordBreak = false;
+
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+
+			if (isWordSeparator(c)) {
+				wordBreak = snakeCase.length() > 0;
+				continue;
+			}
+
+			if (Character.isUpperCase(c) && i > 0) {
+				char previous = name.charAt(i - 1);
+
+				if (Character.isLowerCase(previous) || Character.isDigit(previous) || (Character.isUpperCase(previous)
+						&& i + 1 < name.length() && Character.isLowerCase(name.charAt(i + 1))))
+					wordBreak = true;
+			}
+
+			if (wordBreak)
+				snakeCase.append('_');
+
+			snakeCase.append(Character.toLowerCase(c));
+			wordBreak = false;
+		}
+
+		return snakeCase.toString();
+	}
+
+	private static boolean isLowerSnakeCase(String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+
+			if (c == '_') {
+				if (i == 0 || i == name.length() - 1 || name.charAt(i - 1) == '_')
+					return false;
+			} else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9'))
+				return false;
+		}
+
+		return true;
+	}
+
+	private static boolean isWordSeparator(char c) {
+		return c == '_' || c == '-' || c == ' ';
+	}
+
 	private static boolean equalsIgnoreCaseAndNonLiterals(String a, String b) {
-		String simplifiedA = a.replaceAll("[^a-zA-Z0-9]", "");
-		String simplifiedB = b.replaceAll("[^a-zA-Z0-9]", "");
+		int i = 0;
+		int j = 0;
+
+		// Walks both names in place, skipping any characters that are not alpha
+		// numeric, so no intermediate strings are needed
+		while (true) {
+			while (i < a.length() && !isAlphaNumeric(a.charAt(i)))
+				i++;
+			while (j < b.length() && !isAlphaNumeric(b.charAt(j)))
+				j++;
+
+			if (i == a.length() || j == b.length())
+				return i == a.length() && j == b.length();
+
+			if (toLowerCaseAlphaNumeric(a.charAt(i++)) != toLowerCaseAlphaNumeric(b.charAt(j++)))
+				return false;
+		}
+	}
+
+	private static char foldCase(char c) {
+		// Same case folding as String.equalsIgnoreCase
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static boolean isAlphaNumeric(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
 
-		return simplifiedA.equalsIgnoreCase(simplifiedB);
+	private static char toLowerCaseAlphaNumeric(char c) {
+		return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
 	}
 }
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+/**
+ * <p>
+ * Parse strategy is used to configure how the request body is decoded before
+ * {@code @BodyParam} values are read from it. There are two strategies:
+ * {@code TREE} and {@code STREAMING}.
+ *
+ * <p>
+ * {@code TREE} decodes the entire request body into a map before any parameter
+ * paths are evaluated.
+ *
+ * <p>
+ * {@code STREAMING} walks the token stream of the request body and only
+ * decodes the values addressed by the {@code @BodyParam} parameters of the
+ * handler method. Unrelated values are skipped and decoding stops as soon as
+ * all parameter paths are found. Request body mappers that do not support
+ * streaming fall back to {@code TREE}.
+ *
+ * @author Remon van Vliet
+ */
+public enum ParseStrategy {
+
+	TREE,
+	STREAMING
+}
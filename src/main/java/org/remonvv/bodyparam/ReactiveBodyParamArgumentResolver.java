@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.remonvv.bodyparam.BodyParamMetrics.Phase;
+import org.remonvv.bodyparam.RequestBodyMapperRegistry.Selection;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.reactive.BindingContext;
+import org.springframework.web.reactive.result.method.HandlerMethodArgumentResolver;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.UnsupportedMediaTypeStatusException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link BodyParamArgumentResolver}. The request body is
+ * decoded once per exchange as it arrives, JSON bodies are tokenized by a
+ * non-blocking parser and other data formats are decoded once the entire body
+ * has been received, so event loop threads are never blocked. Only the extract
+ * and convert phases are recorded as metrics since reading and decoding are
+ * interleaved with the arrival of the request body.
+ */
+public class ReactiveBodyParamArgumentResolver extends AbstractBodyParamArgumentResolver
+		implements HandlerMethodArgumentResolver {
+
+	private static final String DECODED_REQUEST_BODY_ATTRIBUTE_PREFIX = ReactiveBodyParamArgumentResolver.class
+			.getName() + ".DECODED_REQUEST_BODY.";
+
+	private static final String EXTRACTED_BODY_PARAMS_ATTRIBUTE_PREFIX = ReactiveBodyParamArgumentResolver.class
+			.getName() + ".EXTRACTED_BODY_PARAMS.";
+
+	ReactiveBodyParamArgumentResolver(BodyParamReader bodyParamReader, BodyParamResolverSettings settings) {
+		super(bodyParamReader, settings);
+	}
+
+	// Records can only be streamed to the handler method by blocking on the
+	// request body
+	@Override
+	boolean supportsBatchParams() {
+		return false;
+	}
+
+	@Override
+	public Mono<Object> resolveArgument(MethodParameter parameter, BindingContext bindingContext,
+			ServerWebExchange exchange) {
+		CompiledBodyParam bodyParam = getCompiledBodyParam(parameter);
+
+		String contentType = exchange.getRequest().getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+		Selection selection = this.requestBodyMapperRegistry.select(contentType);
+
+		if (selection == null)
+			return Mono.error(new UnsupportedMediaTypeStatusException(
+					RequestBodyMapperRegistry.parseMediaType(contentType),
+					this.requestBodyMapperRegistry.getSupportedMediaTypes()));
+
+		MediaType mediaType = selection.getMediaType();
+		RequestBodyMapper requestBodyMapper = selection.getRequestBodyMapper();
+		BodyParamPathTrie trie = getHandlerMethodTrie(bodyParam);
+
+		return getDecodedRequestBody(exchange, requestBodyMapper, bodyParam.getRequestBodyLimits())
+				.map(decodedRequestBody -> getExtractedBodyParams(exchange, requestBodyMapper, decodedRequestBody,
+						trie, bodyParam, mediaType))
+				.flatMap(bodyParamValues -> Mono.justOrEmpty(bodyParam.isLazy()
+						? new LazyValue(() -> resolveExtractedValue(bodyParam, mediaType, requestBodyMapper,
+								bodyParamValues))
+						: resolveExtractedValue(bodyParam, mediaType, requestBodyMapper, bodyParamValues)));
+	}
+
+	// The request body cannot be read without blocking once the handler method is
+	// invoked, so only the conversion of the values of lazy parameters is deferred
+	private Object resolveExtractedValue(CompiledBodyParam bodyParam, MediaType mediaType,
+			RequestBodyMapper requestBodyMapper, Map<CompiledBodyParam, Object> bodyParamValues) {
+		return wrapValue(bodyParam, resolveValue(bodyParam, mediaType, requestBodyMapper, bodyParamValues));
+	}
+
+	@SuppressWarnings("unchecked")
+	private Mono<Object> getDecodedRequestBody(ServerWebExchange exchange, RequestBodyMapper requestBodyMapper,
+			RequestBodyLimits requestBodyLimits) {
+		String attributeName = DECODED_REQUEST_BODY_ATTRIBUTE_PREFIX + requestBodyMapper.getClass().getName();
+
+		// The request body can only be consumed once, so the decoded body is cached
+		// and shared by all @BodyParam arguments of the same exchange
+		return (Mono<Object>) exchange.getAttributes().computeIfAbsent(attributeName,
+				name -> decodeRequestBody(exchange.getRequest(), requestBodyMapper, requestBodyLimits).cache());
+	}
+
+	private Mono<Object> decodeRequestBody(ServerHttpRequest request, RequestBodyMapper requestBodyMapper,
+			RequestBodyLimits requestBodyLimits) {
+		// Request bodies that are too large are rejected before they are read
+		try {
+			requestBodyLimits.checkBodySize(request.getHeaders().getContentLength());
+		} catch (ResponseStatusException e) {
+			return Mono.error(e);
+		}
+
+		Flux<DataBuffer> requestBody = limitBodySize(request.getBody(), requestBodyLimits);
+		JsonParser nonBlockingParser = createNonBlockingParser(requestBodyMapper);
+
+		if (nonBlockingParser != null)
+			return Mono.defer(() -> {
+				TokenCollector tokenCollector = new TokenCollector(requestBodyLimits.limit(nonBlockingParser),
+						((StreamingRequestBodyMapper) requestBodyMapper).createTokenBuffer());
+
+				return requestBody.reduce(tokenCollector, TokenCollector::feed).map(TokenCollector::complete);
+			});
+
+		// Data formats without a non-blocking parser are decoded once the entire
+		// request body has been received
+		return DataBufferUtils.join(requestBody)
+				.map(ReactiveBodyParamArgumentResolver::toBytes)
+				.defaultIfEmpty(new byte[0])
+				.map(bytes -> mapRequestBody(requestBodyMapper, bytes, requestBodyLimits));
+	}
+
+	/**
+	 * Fails the request body as soon as more bytes than allowed have arrived,
+	 * which cancels reading the rest of it.
+	 */
+	private static Flux<DataBuffer> limitBodySize(Flux<DataBuffer> requestBody, RequestBodyLimits requestBodyLimits) {
+		if (requestBodyLimits.getMaxBodySize() < 0)
+			return requestBody;
+
+		return Flux.defer(() -> {
+			long[] bodySize = new long[1];
+
+			return requestBody.doOnNext(dataBuffer -> {
+				bodySize[0] += dataBuffer.readableByteCount();
+
+				if (bodySize[0] > requestBodyLimits.getMaxBodySize()) {
+					DataBufferUtils.release(dataBuffer);
+					requestBodyLimits.checkBodySize(bodySize[0]);
+				}
+			});
+		});
+	}
+
+	private static JsonParser createNonBlockingParser(RequestBodyMapper requestBodyMapper) {
+		if (!(requestBodyMapper instanceof StreamingRequestBodyMapper))
+			return null;
+
+		try {
+			return ((StreamingRequestBodyMapper) requestBodyMapper).createNonBlockingParser();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot create non-blocking parser", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<CompiledBodyParam, Object> getExtractedBodyParams(ServerWebExchange exchange,
+			RequestBodyMapper requestBodyMapper, Object decodedRequestBody, BodyParamPathTrie trie,
+			CompiledBodyParam bodyParam, MediaType mediaType) {
+		String attributeName = EXTRACTED_BODY_PARAMS_ATTRIBUTE_PREFIX + requestBodyMapper.getClass().getName();
+
+		ExtractedBodyParams extractedBodyParams = exchange.getAttribute(attributeName);
+
+		if (extractedBodyParams == null || extractedBodyParams.trie != trie) {
+			long startTime = System.nanoTime();
+
+			Map<CompiledBodyParam, Object> values = decodedRequestBody instanceof TokenBuffer
+					? streamBodyParams((TokenBuffer) decodedRequestBody, trie,
+							(StreamingRequestBodyMapper) requestBodyMapper)
+					: this.bodyParamReader.readBodyParams(trie, (Map<String, Object>) decodedRequestBody);
+
+			this.metrics.recordPhase(Phase.EXTRACT, getHandlerMethod(bodyParam), mediaType, null,
+					System.nanoTime() - startTime);
+
+			extractedBodyParams = new ExtractedBodyParams(trie, values);
+			exchange.getAttributes().put(attributeName, extractedBodyParams);
+		}
+
+		return extractedBodyParams.values;
+	}
+
+	private Map<CompiledBodyParam, Object> streamBodyParams(TokenBuffer tokenBuffer, BodyParamPathTrie trie,
+			StreamingRequestBodyMapper requestBodyMapper) {
+		try (JsonParser parser = tokenBuffer.asParser()) {
+			return this.bodyParamReader.streamBodyParams(parser, trie, requestBodyMapper);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Request body is not valid and cannot be decoded");
+		}
+	}
+
+	private static byte[] toBytes(DataBuffer dataBuffer) {
+		byte[] bytes = new byte[dataBuffer.readableByteCount()];
+
+		dataBuffer.read(bytes);
+		DataBufferUtils.release(dataBuffer);
+
+		return bytes;
+	}
+
+	/**
+	 * Feeds request body chunks to a non-blocking parser and collects the tokens
+	 * that become available.
+	 */
+	private static final class TokenCollector {
+
+		private final JsonParser parser;
+		private final ByteArrayFeeder feeder;
+		private final TokenBuffer tokenBuffer;
+
+		TokenCollector(JsonParser parser, TokenBuffer tokenBuffer) {
+			this.parser = parser;
+			this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+			this.tokenBuffer = tokenBuffer;
+		}
+
+		TokenCollector feed(DataBuffer dataBuffer) {
+			byte[] bytes = toBytes(dataBuffer);
+
+			try {
+				this.feeder.feedInput(bytes, 0, bytes.length);
+				collectTokens();
+			} catch (IOException e) {
+				RequestBodyLimits.throwIfExceeded(e);
+				throw invalidRequestBody();
+			}
+
+			return this;
+		}
+
+		TokenBuffer complete() {
+			try {
+				this.feeder.endOfInput();
+				collectTokens();
+				this.parser.close();
+			} catch (IOException e) {
+				RequestBodyLimits.throwIfExceeded(e);
+				throw invalidRequestBody();
+			}
+
+			return this.tokenBuffer;
+		}
+
+		private void collectTokens() throws IOException {
+			JsonToken token;
+
+			while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE)
+				this.tokenBuffer.copyCurrentEvent(this.parser);
+		}
+
+		private static IllegalArgumentException invalidRequestBody() {
+			return new IllegalArgumentException("Request body is not valid and cannot be decoded");
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@EnableConfigurationProperties(BodyParamProperties.class)
+public class ReactiveBodyParamArgumentResolverConfiguration implements WebFluxConfigurer, SmartInitializingSingleton {
+
+	private final BodyParamProperties properties;
+
+	private final ObjectProvider<BodyParamMetrics> metrics;
+
+	private final ObjectProvider<RequestBodyMapper> requestBodyMappers;
+
+	private final ObjectProvider<NameMatcher> nameMatchers;
+
+	private final ObjectProvider<RequestMappingHandlerMapping> handlerMappings;
+
+	private ReactiveBodyParamArgumentResolver bodyParamArgumentResolver;
+
+	public ReactiveBodyParamArgumentResolverConfiguration(BodyParamProperties properties,
+			ObjectProvider<BodyParamMetrics> metrics, ObjectProvider<RequestBodyMapper> requestBodyMappers,
+			ObjectProvider<NameMatcher> nameMatchers, ObjectProvider<RequestMappingHandlerMapping> handlerMappings) {
+		this.properties = properties;
+		this.metrics = metrics;
+		this.requestBodyMappers = requestBodyMappers;
+		this.nameMatchers = nameMatchers;
+		this.handlerMappings = handlerMappings;
+	}
+
+	@Override
+	public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+		configurer.addCustomResolver(getBodyParamArgumentResolver());
+	}
+
+	// Compiling all parameters at startup rejects invalid parameters before the
+	// application takes traffic and takes compilation off the first requests
+	@Override
+	public void afterSingletonsInstantiated() {
+		if (this.properties.isPrepareHandlerMethods())
+			this.handlerMappings.orderedStream().forEach(handlerMapping -> getBodyParamArgumentResolver()
+					.prepareHandlerMethods(handlerMapping.getHandlerMethods().values()));
+	}
+
+	private ReactiveBodyParamArgumentResolver getBodyParamArgumentResolver() {
+		if (this.bodyParamArgumentResolver == null) {
+			BodyParamMetrics metrics = this.properties.getMetrics().isEnabled()
+					? this.metrics.getIfAvailable(() -> BodyParamMetrics.NONE)
+					: BodyParamMetrics.NONE;
+			RequestBodyMapperRegistry requestBodyMapperRegistry = new RequestBodyMapperRegistry(
+					this.requestBodyMappers.orderedStream().collect(Collectors.toList()),
+					this.properties.getCache().getContentTypes());
+			BodyParamResolverSettings settings = new BodyParamResolverSettings()
+					.metrics(metrics)
+					.requestBodyMapperRegistry(requestBodyMapperRegistry)
+					.requestBodyLimits(this.properties.getRequestBodyLimits())
+					.nameMatchingMode(this.properties.getNameMatchingMode())
+					.nameMatchers(this.nameMatchers.orderedStream().collect(Collectors.toList()));
+
+			this.bodyParamArgumentResolver = new ReactiveBodyParamArgumentResolver(
+					new BodyParamReader(this.properties.getCache().getParamPaths()), settings);
+		}
+
+		return this.bodyParamArgumentResolver;
+	}
+}
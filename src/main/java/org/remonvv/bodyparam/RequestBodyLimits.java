@@ -0,0 +1,283 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+/**
+ * Limits of the request body of a handler method. The body size is checked
+ * while the request body is read, nesting depth and token count are checked by
+ * the parser as the request body is tokenized, so reading stops at the first
+ * violation. Negative limits are not enforced.
+ */
+final class RequestBodyLimits {
+
+	static final RequestBodyLimits UNLIMITED = new RequestBodyLimits(-1, -1, -1);
+
+	private final long maxBodySize;
+	private final int maxDepth;
+	private final long maxTokens;
+
+	RequestBodyLimits(long maxBodySize, int maxDepth, long maxTokens) {
+		this.maxBodySize = maxBodySize;
+		this.maxDepth = maxDepth;
+		this.maxTokens = maxTokens;
+	}
+
+	/**
+	 * Returns these limits overridden by the limits that are specified by the given
+	 * annotation, if any.
+	 */
+	RequestBodyLimits override(BodyParamLimits bodyParamLimits) {
+		if (bodyParamLimits == null)
+			return this;
+
+		return new RequestBodyLimits(
+				bodyParamLimits.maxBodySize() >= 0 ? bodyParamLimits.maxBodySize() : this.maxBodySize,
+				bodyParamLimits.maxDepth() >= 0 ? bodyParamLimits.maxDepth() : this.maxDepth,
+				bodyParamLimits.maxTokens() >= 0 ? bodyParamLimits.maxTokens() : this.maxTokens);
+	}
+
+	/**
+	 * Returns these limits overridden by the limits of the handler method of the
+	 * given parameter, which override those of its controller.
+	 */
+	RequestBodyLimits override(MethodParameter parameter) {
+		return override(parameter.getDeclaringClass().getAnnotation(BodyParamLimits.class))
+				.override(parameter.getMethodAnnotation(BodyParamLimits.class));
+	}
+
+	long getMaxBodySize() {
+		return this.maxBodySize;
+	}
+
+	/**
+	 * Rejects request bodies of the given size, or of which the size read so far
+	 * is the given size, if they exceed the maximum body size.
+	 */
+	void checkBodySize(long bodySize) {
+		if (this.maxBodySize >= 0 && bodySize > this.maxBodySize)
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+					"Request body exceeds the maximum size of " + this.maxBodySize + " bytes");
+	}
+
+	/**
+	 * Returns an input stream that rejects the request body once more bytes than
+	 * the maximum body size have been read from the given input stream.
+	 */
+	InputStream limit(InputStream inputStream) {
+		return this.maxBodySize >= 0 ? new LimitedInputStream(inputStream, this.maxBodySize) : inputStream;
+	}
+
+	/**
+	 * Whether request bodies have to be tokenized by a parser returned by
+	 * {@link #limit(JsonParser)} for these limits to be enforced.
+	 */
+	boolean limitsTokens() {
+		return this.maxDepth >= 0 || this.maxTokens >= 0;
+	}
+
+	/**
+	 * Returns a parser that enforces the nesting depth and token count limits
+	 * while reading from the given parser.
+	 */
+	JsonParser limit(JsonParser parser) {
+		return limitsTokens() ? new LimitedJsonParser(parser, this.maxDepth, this.maxTokens) : parser;
+	}
+
+	/**
+	 * Throws a {@code 400 Bad Request} status exception if the given exception was
+	 * caused by a parser that exceeded a limit, or a {@code 413 Payload Too Large}
+	 * status exception if it was caused by an input stream that exceeded the
+	 * maximum body size. Deserializers may wrap the exceptions of the parser, so
+	 * the entire cause chain is searched.
+	 */
+	static void throwIfExceeded(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof LimitExceededException)
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+						((LimitExceededException) cause).getOriginalMessage());
+			if (cause instanceof BodySizeExceededException)
+				throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, cause.getMessage());
+		}
+	}
+
+	private static final class LimitedJsonParser extends JsonParserDelegate {
+
+		private final int maxDepth;
+		private final long maxTokens;
+
+		private int depth;
+		private long tokenCount;
+
+		LimitedJsonParser(JsonParser parser, int maxDepth, long maxTokens) {
+			super(parser);
+			this.maxDepth = maxDepth;
+			this.maxTokens = maxTokens;
+		}
+
+		@Override
+		public JsonToken nextToken() throws IOException {
+			JsonToken token = super.nextToken();
+
+			if (token == null || token == JsonToken.NOT_AVAILABLE)
+				return token;
+
+			if (this.maxTokens >= 0 && ++this.tokenCount > this.maxTokens)
+				throw new LimitExceededException(this,
+						"Request body exceeds the maximum of " + this.maxTokens + " tokens");
+
+			if (token.isStructStart()) {
+				if (this.maxDepth >= 0 && ++this.depth > this.maxDepth)
+					throw new LimitExceededException(this,
+							"Request body exceeds the maximum nesting depth of " + this.maxDepth);
+			} else if (token.isStructEnd())
+				this.depth--;
+
+			return token;
+		}
+
+		@Override
+		public JsonToken nextValue() throws IOException {
+			JsonToken token = nextToken();
+
+			return token == JsonToken.FIELD_NAME ? nextToken() : token;
+		}
+
+		@Override
+		public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+			return this.delegate.getNonBlockingInputFeeder();
+		}
+
+		// The delegate would skip children without passing the tokens through this
+		// parser, so they are skipped one token at a time instead
+		@Override
+		public JsonParser skipChildren() throws IOException {
+			JsonToken currentToken = currentToken();
+
+			if (currentToken == null || !currentToken.isStructStart())
+				return this;
+
+			int open = 1;
+
+			while (open > 0) {
+				JsonToken token = nextToken();
+
+				if (token == null || token == JsonToken.NOT_AVAILABLE)
+					break;
+				if (token.isStructStart())
+					open++;
+				else if (token.isStructEnd())
+					open--;
+			}
+
+			return this;
+		}
+	}
+
+	private static final class LimitExceededException extends JsonParseException {
+
+		private static final long serialVersionUID = 1L;
+
+		LimitExceededException(JsonParser parser, String message) {
+			super(parser, message);
+		}
+	}
+
+	// Parsers read ahead in blocks, so the request body may be rejected slightly
+	// before the parser reaches the byte that exceeds the limit
+	private static final class LimitedInputStream extends FilterInputStream {
+
+		private final long maxBodySize;
+
+		private long bodySize;
+
+		LimitedInputStream(InputStream inputStream, long maxBodySize) {
+			super(inputStream);
+			this.maxBodySize = maxBodySize;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+
+			if (b >= 0)
+				count(1);
+
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int bytesRead = super.read(b, off, len);
+
+			if (bytesRead > 0)
+				count(bytesRead);
+
+			return bytesRead;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long bytesSkipped = super.skip(n);
+
+			count(bytesSkipped);
+
+			return bytesSkipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+
+		private void count(long bytes) throws BodySizeExceededException {
+			this.bodySize += bytes;
+
+			if (this.bodySize > this.maxBodySize)
+				throw new BodySizeExceededException(
+						"Request body exceeds the maximum size of " + this.maxBodySize + " bytes");
+		}
+	}
+
+	// An I/O exception is passed through by deserializers unwrapped
+	private static final class BodySizeExceededException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		BodySizeExceededException(String message) {
+			super(message);
+		}
+	}
+}
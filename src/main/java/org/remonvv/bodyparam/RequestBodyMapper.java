@@ -22,12 +22,43 @@
 package org.remonvv.bodyparam;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.http.MediaType;
+
 public interface RequestBodyMapper {
 
+	/**
+	 * Returns the media types of the request bodies this mapper can decode.
+	 * Request bodies with a content type that has one of these media types as its
+	 * structured syntax suffix (e.g. {@code application/vnd.example+json} for
+	 * {@code application/json}) are decoded by this mapper as well. Returns an
+	 * empty list by default, in which case the mapper is never selected.
+	 */
+	default List<MediaType> getSupportedMediaTypes() {
+		return List.of();
+	}
+
 	Object convertValue(Type paramType, Object value);
 
 	Map<String, Object> mapRequestBody(String requestBodyString);
 
+	/**
+	 * Prepares this mapper for converting values to the given parameter type
+	 * before the first request arrives, for instance by building deserializers.
+	 * Does nothing by default.
+	 */
+	default void prepare(Type paramType) {
+	}
+
+	/**
+	 * Maps the raw bytes of the request body. The default implementation decodes
+	 * the bytes as UTF-8, mappers that can parse bytes directly should override
+	 * this method to avoid the intermediate string.
+	 */
+	default Map<String, Object> mapRequestBody(byte[] requestBody) {
+		return mapRequestBody(new String(requestBody, StandardCharsets.UTF_8));
+	}
 }
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.remonvv.bodyparam.mappers.CborRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.MessagePackRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.SmileRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+/**
+ * Creates the request body mappers from the object mappers of the application
+ * context, so that registered modules and features as well as the warmed up
+ * (de)serializer caches are shared with the rest of the application.
+ */
+@Configuration
+@AutoConfigureAfter(JacksonAutoConfiguration.class)
+public class RequestBodyMapperConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	JsonRequestBodyMapper jsonRequestBodyMapper(ObjectProvider<ObjectMapper> objectMapper,
+			ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+		// Mappers of other data formats are object mappers as well but cannot decode
+		// JSON
+		ObjectMapper contextObjectMapper = objectMapper.getIfUnique();
+
+		if (contextObjectMapper != null
+				&& JsonFactory.FORMAT_NAME_JSON.equals(contextObjectMapper.getFactory().getFormatName()))
+			return new JsonRequestBodyMapper(contextObjectMapper);
+
+		return new JsonRequestBodyMapper(objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::json).build());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	XmlRequestBodyMapper xmlRequestBodyMapper(ObjectProvider<XmlMapper> xmlMapper,
+			ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+		return new XmlRequestBodyMapper(xmlMapper.getIfUnique(() -> objectMapperBuilder
+				.getIfAvailable(Jackson2ObjectMapperBuilder::xml).createXmlMapper(true).build()));
+	}
+
+	@Configuration
+	@ConditionalOnClass(CBORFactory.class)
+	static class CborRequestBodyMapperConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		CborRequestBodyMapper cborRequestBodyMapper(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+			return new CborRequestBodyMapper(objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new)
+					.factory(new CBORFactory()).build());
+		}
+	}
+
+	@Configuration
+	@ConditionalOnClass(SmileFactory.class)
+	static class SmileRequestBodyMapperConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		SmileRequestBodyMapper smileRequestBodyMapper(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+			return new SmileRequestBodyMapper(objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new)
+					.factory(new SmileFactory()).build());
+		}
+	}
+
+	@Configuration
+	@ConditionalOnClass(MessagePackFactory.class)
+	static class MessagePackRequestBodyMapperConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		MessagePackRequestBodyMapper messagePackRequestBodyMapper(
+				ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+			return new MessagePackRequestBodyMapper(objectMapperBuilder.getIfAvailable(Jackson2ObjectMapperBuilder::new)
+					.factory(new MessagePackFactory()).build());
+		}
+	}
+}
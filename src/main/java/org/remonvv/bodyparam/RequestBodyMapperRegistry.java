@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Selects the request body mapper for the content type of a request. A mapper
+ * is selected if any of its supported media types is compatible with the
+ * content type, or otherwise with the structured syntax suffix of the content
+ * type (e.g. {@code application/vnd.example+json} is mapped like
+ * {@code application/json}). Mappers are tried in registration order, the
+ * selected media type is the supported media type that matched.
+ */
+final class RequestBodyMapperRegistry {
+
+	private static final Selection UNSUPPORTED = new Selection(null, null);
+
+	private final Map<String, Selection> selections = new ConcurrentHashMap<>();
+
+	private final List<RequestBodyMapper> requestBodyMappers;
+
+	private final List<MediaType> supportedMediaTypes;
+
+	// Content types are supplied by clients, so only a limited number of distinct
+	// values is cached
+	private final int maxCachedContentTypes;
+
+	RequestBodyMapperRegistry(List<RequestBodyMapper> requestBodyMappers) {
+		this(requestBodyMappers, BodyParamProperties.DEFAULT_CACHE_SIZE);
+	}
+
+	RequestBodyMapperRegistry(List<RequestBodyMapper> requestBodyMappers, int maxCachedContentTypes) {
+		this.maxCachedContentTypes = maxCachedContentTypes;
+		this.requestBodyMappers = List.copyOf(requestBodyMappers);
+
+		List<MediaType> supportedMediaTypes = new ArrayList<>();
+
+		for (RequestBodyMapper requestBodyMapper : requestBodyMappers)
+			supportedMediaTypes.addAll(requestBodyMapper.getSupportedMediaTypes());
+
+		this.supportedMediaTypes = List.copyOf(supportedMediaTypes);
+	}
+
+	/**
+	 * Returns the selected mapper for the given raw {@code Content-Type} header
+	 * value, or {@code null} if the content type is missing, invalid or not
+	 * supported by any of the registered mappers.
+	 */
+	Selection select(String contentType) {
+		if (contentType == null)
+			return null;
+
+		Selection selection = this.selections.get(contentType);
+
+		if (selection == null) {
+			selection = negotiate(contentType);
+
+			if (this.selections.size() < this.maxCachedContentTypes)
+				this.selections.putIfAbsent(contentType, selection);
+		}
+
+		return selection == UNSUPPORTED ? null : selection;
+	}
+
+	List<RequestBodyMapper> getRequestBodyMappers() {
+		return this.requestBodyMappers;
+	}
+
+	List<MediaType> getSupportedMediaTypes() {
+		return this.supportedMediaTypes;
+	}
+
+	/**
+	 * Parses the given content type, returning {@code null} if it is missing or
+	 * invalid.
+	 */
+	static MediaType parseMediaType(String contentType) {
+		try {
+			return contentType == null ? null : MediaType.parseMediaType(contentType);
+		} catch (InvalidMediaTypeException e) {
+			return null;
+		}
+	}
+
+	private Selection negotiate(String contentType) {
+		MediaType mediaType = parseMediaType(contentType);
+
+		if (mediaType == null || mediaType.isWildcardType() || mediaType.isWildcardSubtype())
+			return UNSUPPORTED;
+
+		Selection selection = findRequestBodyMapper(mediaType);
+
+		// Fall back to the structured syntax suffix, e.g. +json or +xml
+		int suffixIndex = mediaType.getSubtype().lastIndexOf('+');
+
+		if (selection == null && suffixIndex >= 0)
+			selection = findRequestBodyMapper(
+					new MediaType(mediaType.getType(), mediaType.getSubtype().substring(suffixIndex + 1)));
+
+		return selection == null ? UNSUPPORTED : selection;
+	}
+
+	// The selection holds the supported media type rather than the content type of
+	// the request, so that it only has as many distinct values as the mappers
+	// declare
+	private Selection findRequestBodyMapper(MediaType mediaType) {
+		for (RequestBodyMapper requestBodyMapper : this.requestBodyMappers)
+			for (MediaType supportedMediaType : requestBodyMapper.getSupportedMediaTypes())
+				if (supportedMediaType.isCompatibleWith(mediaType))
+					return new Selection(supportedMediaType, requestBodyMapper);
+
+		return null;
+	}
+
+	static final class Selection {
+
+		private final MediaType mediaType;
+		private final RequestBodyMapper requestBodyMapper;
+
+		Selection(MediaType mediaType, RequestBodyMapper requestBodyMapper) {
+			this.mediaType = mediaType;
+			this.requestBodyMapper = requestBodyMapper;
+		}
+
+		MediaType getMediaType() {
+			return this.mediaType;
+		}
+
+		RequestBodyMapper getRequestBodyMapper() {
+			return this.requestBodyMapper;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Converts values of a single scalar parameter type without going through the
+ * generic conversion of a request body mapper. Values that cannot be converted
+ * without coercion are left to the request body mapper, which is signalled by
+ * returning {@code null}.
+ */
+interface ScalarConverter {
+
+	/**
+	 * Converts the default value of a parameter.
+	 */
+	Object fromString(String value);
+
+	/**
+	 * Converts a value of a decoded request body, or returns {@code null} if the
+	 * value is not of a type that maps directly onto the parameter type.
+	 */
+	Object fromValue(Object value);
+
+	/**
+	 * Reads the scalar token the parser is positioned at, or returns {@code null}
+	 * without advancing the parser if the token does not map directly onto the
+	 * parameter type.
+	 */
+	Object fromToken(JsonParser parser) throws IOException;
+
+}
@@ -0,0 +1,234 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Registry of the {@link ScalarConverter}s of the boxed and primitive scalar
+ * types, {@link String} and enums.
+ */
+final class ScalarConverters {
+
+	private static final Map<Class<?>, ScalarConverter> CONVERTERS = new HashMap<>();
+
+	private static final Map<Class<?>, ScalarConverter> ENUM_CONVERTERS = new ConcurrentHashMap<>();
+
+	static {
+		register(new SimpleScalarConverter(value -> value,
+				value -> value instanceof String ? value : null,
+				parser -> parser.currentToken() == JsonToken.VALUE_STRING ? parser.getText() : null),
+				String.class);
+		register(new SimpleScalarConverter(Boolean::parseBoolean,
+				value -> value instanceof Boolean ? value : null,
+				parser -> parser.currentToken().isBoolean() ? parser.getBooleanValue() : null),
+				Boolean.class, boolean.class);
+		register(new SimpleScalarConverter(Byte::parseByte,
+				value -> value instanceof Integer && (Integer) value == ((Integer) value).byteValue()
+						? ((Integer) value).byteValue()
+						: null,
+				parser -> isIntToken(parser) && parser.getIntValue() == (byte) parser.getIntValue()
+						? (byte) parser.getIntValue()
+						: null),
+				Byte.class, byte.class);
+		register(new SimpleScalarConverter(Short::parseShort,
+				value -> value instanceof Integer && (Integer) value == ((Integer) value).shortValue()
+						? ((Integer) value).shortValue()
+						: null,
+				parser -> isIntToken(parser) && parser.getIntValue() == (short) parser.getIntValue()
+						? (short) parser.getIntValue()
+						: null),
+				Short.class, short.class);
+		register(new SimpleScalarConverter(Integer::parseInt,
+				value -> value instanceof Integer ? value : null,
+				parser -> isIntToken(parser) ? parser.getIntValue() : null),
+				Integer.class, int.class);
+		register(new SimpleScalarConverter(Long::parseLong,
+				value -> value instanceof Integer || value instanceof Long ? ((Number) value).longValue() : null,
+				parser -> isIntToken(parser) || isLongToken(parser) ? parser.getLongValue() : null),
+				Long.class, long.class);
+		register(new SimpleScalarConverter(Float::parseFloat,
+				value -> value instanceof Double ? ((Double) value).floatValue() : null,
+				parser -> parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT ? parser.getFloatValue() : null),
+				Float.class, float.class);
+		register(new SimpleScalarConverter(Double::parseDouble,
+				value -> value instanceof Double ? value : null,
+				parser -> parser.currentToken() == JsonToken.VALUE_NUMBER_FLOAT ? parser.getDoubleValue() : null),
+				Double.class, double.class);
+	}
+
+	private ScalarConverters() {
+	}
+
+	/**
+	 * Returns the converter for the given parameter type, or {@code null} if the
+	 * type is not a supported scalar type.
+	 */
+	static ScalarConverter getConverter(Class<?> type) {
+		if (!type.isEnum())
+			return CONVERTERS.get(type);
+
+		ScalarConverter converter = ENUM_CONVERTERS.get(type);
+
+		// Converters are built without holding a lock of the map, like compiled
+		// parameters. An enum that is converted concurrently uses whichever converter
+		// was cached first.
+		if (converter == null) {
+			converter = new EnumConverter(type);
+
+			ScalarConverter cachedConverter = ENUM_CONVERTERS.putIfAbsent(type, converter);
+
+			if (cachedConverter != null)
+				converter = cachedConverter;
+		}
+
+		return converter;
+	}
+
+	private static void register(ScalarConverter converter, Class<?>... types) {
+		for (Class<?> type : types)
+			CONVERTERS.put(type, converter);
+	}
+
+	private static boolean isIntToken(JsonParser parser) throws IOException {
+		return parser.currentToken() == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == NumberType.INT;
+	}
+
+	private static boolean isLongToken(JsonParser parser) throws IOException {
+		return parser.currentToken() == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == NumberType.LONG;
+	}
+
+	@FunctionalInterface
+	private interface TokenReader {
+
+		Object read(JsonParser parser) throws IOException;
+
+	}
+
+	private static final class SimpleScalarConverter implements ScalarConverter {
+
+		private final Function<String, Object> stringConverter;
+		private final Function<Object, Object> valueConverter;
+		private final TokenReader tokenReader;
+
+		SimpleScalarConverter(Function<String, Object> stringConverter, Function<Object, Object> valueConverter,
+				TokenReader tokenReader) {
+			this.stringConverter = stringConverter;
+			this.valueConverter = valueConverter;
+			this.tokenReader = tokenReader;
+		}
+
+		@Override
+		public Object fromString(String value) {
+			return this.stringConverter.apply(value);
+		}
+
+		@Override
+		public Object fromValue(Object value) {
+			return this.valueConverter.apply(value);
+		}
+
+		@Override
+		public Object fromToken(JsonParser parser) throws IOException {
+			return this.tokenReader.read(parser);
+		}
+	}
+
+	/**
+	 * Looks up enum constants in tables that are built once per enum type. Values
+	 * are matched against the constant names like Jackson does by default, enums
+	 * that customize their Jackson representation are always left to the request
+	 * body mapper.
+	 */
+	private static final class EnumConverter implements ScalarConverter {
+
+		private final Class<?> enumType;
+		private final Map<String, Object> constantsByName = new HashMap<>();
+		private final Map<String, Object> constantsByFoldedString = new HashMap<>();
+		private final boolean hasJacksonAnnotations;
+
+		EnumConverter(Class<?> enumType) {
+			this.enumType = enumType;
+
+			for (Object constant : enumType.getEnumConstants()) {
+				this.constantsByName.put(((Enum<?>) constant).name(), constant);
+				this.constantsByFoldedString.putIfAbsent(
+						NameMatchingUtils.normalizeName(constant.toString(), NameMatchingMode.IGNORE_CASE), constant);
+			}
+
+			this.hasJacksonAnnotations = hasJacksonAnnotations(enumType.getDeclaredFields())
+					|| hasJacksonAnnotations(enumType.getDeclaredMethods())
+					|| hasJacksonAnnotations(enumType.getDeclaredConstructors())
+					|| isJacksonAnnotated(enumType.getAnnotations());
+		}
+
+		@Override
+		public Object fromString(String value) {
+			Object constant = this.constantsByFoldedString
+					.get(NameMatchingUtils.normalizeName(value, NameMatchingMode.IGNORE_CASE));
+
+			if (constant == null)
+				throw new IllegalArgumentException(
+						"Cannot convert string \"" + value + "\" to any of the enum values of enum " + this.enumType);
+
+			return constant;
+		}
+
+		@Override
+		public Object fromValue(Object value) {
+			return value instanceof String && !this.hasJacksonAnnotations ? this.constantsByName.get(value) : null;
+		}
+
+		@Override
+		public Object fromToken(JsonParser parser) throws IOException {
+			return parser.currentToken() == JsonToken.VALUE_STRING && !this.hasJacksonAnnotations
+					? this.constantsByName.get(parser.getText())
+					: null;
+		}
+
+		private static boolean hasJacksonAnnotations(AccessibleObject[] members) {
+			for (AccessibleObject member : members)
+				if (isJacksonAnnotated(member.getAnnotations()))
+					return true;
+
+			return false;
+		}
+
+		private static boolean isJacksonAnnotated(Annotation[] annotations) {
+			for (Annotation annotation : annotations)
+				if (annotation.annotationType().getName().startsWith("com.fasterxml.jackson."))
+					return true;
+
+			return false;
+		}
+	}
+}
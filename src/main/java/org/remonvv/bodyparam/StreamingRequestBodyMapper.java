@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Request body mapper that can expose the request body as a token stream so
+ * that {@code @BodyParam} values can be extracted without decoding the entire
+ * request body. Parsers returned by this mapper must have a codec configured.
+ */
+public interface StreamingRequestBodyMapper extends RequestBodyMapper {
+
+	JsonParser createParser(byte[] requestBody) throws IOException;
+
+	/**
+	 * Creates a parser that reads the request body from the given input stream as
+	 * it is parsed. The default implementation reads the entire request body
+	 * first, mappers that can parse an input stream directly should override this
+	 * method.
+	 */
+	default JsonParser createParser(InputStream requestBody) throws IOException {
+		return createParser(requestBody.readAllBytes());
+	}
+
+	/**
+	 * Decodes the entire request body from the given parser, which is positioned
+	 * before the first token of the request body.
+	 */
+	Map<String, Object> mapRequestBody(JsonParser parser) throws IOException;
+
+	/**
+	 * Binds the value the parser is positioned at directly to the given type,
+	 * leaving the parser at the last token of that value.
+	 */
+	Object readValue(JsonParser parser, JavaType type) throws IOException;
+
+	/**
+	 * Creates a non-blocking parser that is fed the request body as it arrives,
+	 * or returns {@code null} if the data format cannot be parsed without
+	 * blocking. Non-blocking parsers cannot decode values themselves, so their
+	 * tokens are collected in a buffer created by {@link #createTokenBuffer()}.
+	 */
+	JsonParser createNonBlockingParser() throws IOException;
+
+	TokenBuffer createTokenBuffer();
+
+	/**
+	 * Whether the data format expresses lists by repeating a field, like repeated
+	 * elements in XML. Values of repeated fields are collected in a list rather
+	 * than the first value being used.
+	 */
+	default boolean hasRepeatedFields() {
+		return false;
+	}
+
+}
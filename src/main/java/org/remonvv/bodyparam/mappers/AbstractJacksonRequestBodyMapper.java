@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam.mappers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.remonvv.bodyparam.RequestBodyMapper;
+import org.remonvv.bodyparam.StreamingRequestBodyMapper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Base class of request body mappers backed by a Jackson {@link ObjectMapper}.
+ * The resolved {@link JavaType} and {@link ObjectReader} of every parameter
+ * type are cached so conversions reuse the deserializers the mapper has
+ * already built.
+ */
+public abstract class AbstractJacksonRequestBodyMapper implements RequestBodyMapper {
+
+	private final Map<Type, JavaType> javaTypes = new ConcurrentHashMap<>();
+
+	private final Map<JavaType, ObjectReader> objectReaders = new ConcurrentHashMap<>();
+
+	private final ObjectMapper objectMapper;
+
+	private final ObjectReader requestBodyReader;
+
+	private final String dataFormatName;
+
+	protected AbstractJacksonRequestBodyMapper(ObjectMapper objectMapper, String dataFormatName) {
+		this.objectMapper = objectMapper;
+		this.requestBodyReader = objectMapper.readerFor(new TypeReference<HashMap<String, Object>>() {});
+		this.dataFormatName = dataFormatName;
+	}
+
+	@Override
+	public Object convertValue(Type paramType, Object value) {
+		if (value == null)
+			return null;
+
+		// Equivalent to ObjectMapper.convertValue but with a cached reader rather
+		// than a deserializer lookup per conversion
+		try (TokenBuffer tokenBuffer = new TokenBuffer(this.objectMapper, false)
+				.forceUseOfBigDecimal(this.objectMapper.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS))) {
+			this.objectMapper.writeValue(tokenBuffer, value);
+
+			try (JsonParser parser = tokenBuffer.asParser()) {
+				return getObjectReader(paramType).readValue(parser);
+			}
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e.getMessage(), e);
+		}
+	}
+
+	// Readers fetch the deserializer of their type when they are created
+	@Override
+	public void prepare(Type paramType) {
+		getObjectReader(paramType);
+	}
+
+	@Override
+	public Map<String, Object> mapRequestBody(String requestBody) {
+		try (JsonParser parser = skipDuplicateFields(this.objectMapper.createParser(requestBody))) {
+			return this.requestBodyReader.readValue(parser);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Request body \"" + requestBody + "\" is not valid "
+					+ this.dataFormatName + " and cannot be decoded");
+		}
+	}
+
+	@Override
+	public Map<String, Object> mapRequestBody(byte[] requestBody) {
+		try (JsonParser parser = createParser(requestBody)) {
+			return this.requestBodyReader.readValue(parser);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(
+					"Request body is not valid " + this.dataFormatName + " and cannot be decoded");
+		}
+	}
+
+	/**
+	 * Creates a parser over the raw request body. Mappers of data formats that
+	 * can be streamed expose this method by implementing
+	 * {@link StreamingRequestBodyMapper}.
+	 */
+	public JsonParser createParser(byte[] requestBody) throws IOException {
+		return skipDuplicateFields(this.objectMapper.createParser(requestBody));
+	}
+
+	public JsonParser createParser(InputStream requestBody) throws IOException {
+		return skipDuplicateFields(this.objectMapper.createParser(requestBody));
+	}
+
+	public Map<String, Object> mapRequestBody(JsonParser parser) throws IOException {
+		return this.requestBodyReader.readValue(parser);
+	}
+
+	public Object readValue(JsonParser parser, JavaType type) throws IOException {
+		return getObjectReader(type).readValue(parser);
+	}
+
+	/**
+	 * Creates a non-blocking parser, or returns {@code null} if the data format of
+	 * this mapper cannot be parsed without blocking.
+	 */
+	public JsonParser createNonBlockingParser() throws IOException {
+		JsonFactory factory = this.objectMapper.getFactory();
+
+		return factory.canParseAsync() ? skipDuplicateFields(factory.createNonBlockingByteArrayParser()) : null;
+	}
+
+	/**
+	 * Whether the data format expresses lists by repeating a field. If not, only
+	 * the first occurrence of a field in an object is read and later occurrences
+	 * are skipped.
+	 */
+	public boolean hasRepeatedFields() {
+		return false;
+	}
+
+	public TokenBuffer createTokenBuffer() {
+		return new TokenBuffer(this.objectMapper, false);
+	}
+
+	protected ObjectMapper getObjectMapper() {
+		return this.objectMapper;
+	}
+
+	private JsonParser skipDuplicateFields(JsonParser parser) {
+		return hasRepeatedFields() ? parser : new DuplicateFieldSkippingParser(parser);
+	}
+
+	// The caches are read without locking on every conversion and filled without
+	// holding a lock of the map while the type or reader is created
+
+	protected JavaType getJavaType(Type type) {
+		JavaType javaType = this.javaTypes.get(type);
+
+		if (javaType == null) {
+			javaType = this.objectMapper.getTypeFactory().constructType(type);
+			this.javaTypes.putIfAbsent(type, javaType);
+		}
+
+		return javaType;
+	}
+
+	protected ObjectReader getObjectReader(Type type) {
+		JavaType javaType = getJavaType(type);
+		ObjectReader objectReader = this.objectReaders.get(javaType);
+
+		if (objectReader == null) {
+			objectReader = createObjectReader(javaType);
+			this.objectReaders.putIfAbsent(javaType, objectReader);
+		}
+
+		return objectReader;
+	}
+
+	protected ObjectReader createObjectReader(JavaType type) {
+		return this.objectMapper.readerFor(type);
+	}
+}
@@ -0,0 +1,52 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam.mappers;
+
+import java.util.List;
+
+import org.remonvv.bodyparam.StreamingRequestBodyMapper;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+public class CborRequestBodyMapper extends AbstractJacksonRequestBodyMapper implements StreamingRequestBodyMapper {
+
+	public static final MediaType APPLICATION_CBOR = new MediaType("application", "cbor");
+
+	public CborRequestBodyMapper() {
+		this(CBORMapper.builder().build());
+	}
+
+	/**
+	 * Creates a mapper using the given object mapper, which must have been created
+	 * with a CBOR factory.
+	 */
+	public CborRequestBodyMapper(ObjectMapper cborMapper) {
+		super(cborMapper, "CBOR");
+	}
+
+	@Override
+	public List<MediaType> getSupportedMediaTypes() {
+		return List.of(APPLICATION_CBOR);
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2021 the original author or authors.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.remonvv.bodyparam.mappers;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.NonBlockingInputFeeder;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+/**
+ * Parser that skips fields of which an earlier field of the same object has
+ * the same name, so that the first occurrence of a field is used whether the
+ * request body is decoded as a whole or streamed and reading stops early.
+ * Fields are skipped as their tokens become available, so non-blocking parsers
+ * can be wrapped as well.
+ */
+final class DuplicateFieldSkippingParser extends JsonParserDelegate {
+
+	private final Deque<Set<String>> fieldNames = new ArrayDeque<>();
+
+	private boolean skippingValue;
+	private int skippedDepth;
+
+	DuplicateFieldSkippingParser(JsonParser parser) {
+		super(parser);
+	}
+
+	@Override
+	public JsonToken nextToken() throws IOException {
+		while (true) {
+			JsonToken token = super.nextToken();
+
+			if (token == null || token == JsonToken.NOT_AVAILABLE)
+				return token;
+
+			if (this.skippingValue) {
+				if (token.isStructStart())
+					this.skippedDepth++;
+				else if (token.isStructEnd())
+					this.skippedDepth--;
+
+				this.skippingValue = this.skippedDepth > 0;
+				continue;
+			}
+
+			if (token == JsonToken.START_OBJECT)
+				this.fieldNames.push(new HashSet<>());
+			else if (token == JsonToken.END_OBJECT)
+				this.fieldNames.pop();
+			else if (token == JsonToken.FIELD_NAME && !this.fieldNames.element().add(currentName())) {
+				this.skippingValue = true;
+				continue;
+			}
+
+			return token;
+		}
+	}
+
+	@Override
+	public JsonToken nextValue() throws IOException {
+		JsonToken token = nextToken();
+
+		return token == JsonToken.FIELD_NAME ? nextToken() : token;
+	}
+
+	@Override
+	public NonBlockingInputFeeder getNonBlockingInputFeeder() {
+		return this.delegate.getNonBlockingInputFeeder();
+	}
+
+	// The delegate would skip children without passing the tokens through this
+	// parser, so they are skipped one token at a time instead
+	@Override
+	public JsonParser skipChildren() throws IOException {
+		JsonToken currentToken = currentToken();
+
+		if (currentToken == null || !currentToken.isStructStart())
+			return this;
+
+		int open = 1;
+
+		while (open > 0) {
+			JsonToken token = nextToken();
+
+			if (token == null || token == JsonToken.NOT_AVAILABLE)
+				break;
+			if (token.isStructStart())
+				open++;
+			else if (token.isStructEnd())
+				open--;
+		}
+
+		return this;
+	}
+}
@@ -21,36 +21,33 @@
  */
 package org.remonvv.bodyparam.mappers;
 
-import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
-import org.remonvv.bodyparam.RequestBodyMapper;
+import org.remonvv.bodyparam.StreamingRequestBodyMapper;
+import org.springframework.http.MediaType;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 
-public class JsonRequestBodyMapper implements RequestBodyMapper {
-	private ObjectMapper objectMapper = JsonMapper.builder().build();
+public class JsonRequestBodyMapper extends AbstractJacksonRequestBodyMapper implements StreamingRequestBodyMapper {
 
-	@Override
-	public Object convertValue(Type paramType, Object value) {
-		JavaType javaType = this.objectMapper.getTypeFactory().constructType(paramType);
+	/**
+	 * Newline delimited JSON, a sequence of JSON values of which
+	 * {@code Stream} and {@code Iterator} parameters bind every value and other
+	 * parameters only the first.
+	 */
+	public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+	public JsonRequestBodyMapper() {
+		this(JsonMapper.builder().build());
+	}
 
-		return this.objectMapper.convertValue(value, javaType);
+	public JsonRequestBodyMapper(ObjectMapper objectMapper) {
+		super(objectMapper, "JSON");
 	}
 
 	@Override
-	public Map<String, Object> mapRequestBody(String requestBody) {
-		TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {};
-		try {
-			return this.objectMapper.readValue(requestBody, typeRef);
-		} catch (JsonProcessingException e) {
-			throw new IllegalArgumentException(
-					"Request body \"" + requestBody + "\" is not valid JSON and cannot be decoded");
-		}
+	public List<MediaType> getSupportedMediaTypes() {
+		return List.of(MediaType.APPLICATION_JSON, APPLICATION_NDJSON);
 	}
 }
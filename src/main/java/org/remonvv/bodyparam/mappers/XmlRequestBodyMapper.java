@@ -21,37 +21,123 @@
  */
 package org.remonvv.bodyparam.mappers;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.remonvv.bodyparam.RequestBodyMapper;
+import org.remonvv.bodyparam.StreamingRequestBodyMapper;
+import org.springframework.http.MediaType;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
-public class XmlRequestBodyMapper implements RequestBodyMapper {
-	private ObjectMapper objectMapper = XmlMapper.builder().build();
+/**
+ * Request body mapper for XML. The request body is read as a stream of StAX
+ * events, so the streaming parse strategy only decodes the elements addressed
+ * by {@code @BodyParam} parameters. Repeated elements are collected in a list.
+ */
+public class XmlRequestBodyMapper extends AbstractJacksonRequestBodyMapper implements StreamingRequestBodyMapper {
 
-	@Override
-	public Object convertValue(Type paramType, Object value) {
-		JavaType javaType = this.objectMapper.getTypeFactory().constructType(paramType);
+	public XmlRequestBodyMapper() {
+		this(XmlMapper.builder().build());
+	}
 
-		return this.objectMapper.convertValue(value, javaType);
+	public XmlRequestBodyMapper(XmlMapper xmlMapper) {
+		super(xmlMapper, "XML");
+	}
+
+	@Override
+	public List<MediaType> getSupportedMediaTypes() {
+		return List.of(MediaType.APPLICATION_XML, MediaType.TEXT_XML);
 	}
 
 	@Override
 	public Map<String, Object> mapRequestBody(String requestBody) {
-		TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {};
-		try {
-			return this.objectMapper.readValue(requestBody, typeRef);
-		} catch (JsonProcessingException e) {
+		try (JsonParser parser = getObjectMapper().createParser(requestBody)) {
+			return readRootElement(parser);
+		} catch (IOException e) {
 			throw new IllegalArgumentException(
-					"Request body \"" + requestBody + "\" is not valid JSON and cannot be decoded");
+					"Request body \"" + requestBody + "\" is not valid XML and cannot be decoded");
+		}
+	}
+
+	@Override
+	public Map<String, Object> mapRequestBody(byte[] requestBody) {
+		try (JsonParser parser = createParser(requestBody)) {
+			return readRootElement(parser);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Request body is not valid XML and cannot be decoded");
 		}
 	}
 
+	@Override
+	public Map<String, Object> mapRequestBody(JsonParser parser) throws IOException {
+		return readRootElement(parser);
+	}
+
+	@Override
+	public boolean hasRepeatedFields() {
+		return true;
+	}
+
+	/**
+	 * Reads values for list parameters from a single element as well, as an
+	 * element that is not repeated is not read as a list.
+	 */
+	@Override
+	protected ObjectReader createObjectReader(JavaType type) {
+		return super.createObjectReader(type).with(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
+	}
+
+	private static Map<String, Object> readRootElement(JsonParser parser) throws IOException {
+		JsonToken token = parser.nextToken();
+
+		if (token == JsonToken.START_OBJECT)
+			return readElement(parser);
+
+		// An empty root element has no child elements rather than text content
+		if (token == JsonToken.VALUE_NULL || token == JsonToken.VALUE_STRING && parser.getText().isEmpty())
+			return new HashMap<>();
+
+		throw new IOException("Root element has no child elements");
+	}
+
+	// Decoding to a map directly would only keep the last of any repeated
+	// elements, so elements are read here and repeated ones collected in a list
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> readElement(JsonParser parser) throws IOException {
+		Map<String, Object> element = new HashMap<>();
+		Set<String> repeatedNames = null;
+
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			JsonToken token = parser.nextToken();
+			Object value = token == JsonToken.START_OBJECT ? readElement(parser) : parser.readValueAs(Object.class);
+
+			if (!element.containsKey(name))
+				element.put(name, value);
+			else {
+				if (repeatedNames == null)
+					repeatedNames = new HashSet<>();
+
+				if (repeatedNames.add(name)) {
+					List<Object> values = new ArrayList<>();
+					values.add(element.get(name));
+					element.put(name, values);
+				}
+
+				((List<Object>) element.get(name)).add(value);
+			}
+		}
+
+		return element;
+	}
 }
@@ -0,0 +1,115 @@
+package org.remonvv.bodyparam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.servlet.context.AnnotationConfigServletWebApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+public class BodyParamArgumentResolverConfigurationTest {
+
+	@Test
+	void context_starts_with_handler_methods_with_implicit_paths() throws Exception {
+		try (AnnotationConfigServletWebApplicationContext context = new AnnotationConfigServletWebApplicationContext()) {
+			context.setServletContext(new MockServletContext());
+			context.register(TestConfiguration.class);
+			context.refresh();
+
+			MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+
+			MockHttpServletResponse response = mockMvc.perform(post("/").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"name\":\"value\",\"number\":42}")).andReturn().getResponse();
+
+			assertEquals(200, response.getStatus());
+			assertEquals("value42", response.getContentAsString());
+		}
+	}
+
+	@Test
+	void context_fails_to_start_with_handler_methods_with_invalid_default_values() {
+		try (AnnotationConfigServletWebApplicationContext context = new AnnotationConfigServletWebApplicationContext()) {
+			context.setServletContext(new MockServletContext());
+			context.register(WebMvcConfiguration.class, InvalidDefaultValueController.class);
+
+			assertTrue(assertThrows(IllegalStateException.class, context::refresh).getMessage()
+					.startsWith("Invalid @BodyParam parameter"));
+		}
+	}
+
+	@Test
+	void context_fails_to_start_with_handler_methods_without_parameter_names(@TempDir Path classDirectory)
+			throws Exception {
+		Path sourceFile = Files.writeString(classDirectory.resolve("UnnamedParameterController.java"),
+				"@org.springframework.web.bind.annotation.RestController public class UnnamedParameterController {"
+						+ " @org.springframework.web.bind.annotation.PostMapping(\"/\")"
+						+ " public String handle(@org.remonvv.bodyparam.BodyParam String name) { return name; } }");
+
+		// Compiled without -parameters and debug information, so the parameter name
+		// cannot be discovered
+		assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, "-g:none", "-proc:none",
+				"-classpath", System.getProperty("java.class.path"), sourceFile.toString()));
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classDirectory.toUri().toURL() },
+				getClass().getClassLoader());
+				AnnotationConfigServletWebApplicationContext context = new AnnotationConfigServletWebApplicationContext()) {
+			context.setServletContext(new MockServletContext());
+			context.register(WebMvcConfiguration.class, classLoader.loadClass("UnnamedParameterController"));
+
+			assertTrue(assertThrows(IllegalStateException.class, context::refresh).getMessage()
+					.startsWith("Invalid @BodyParam parameter"));
+		}
+	}
+
+	@Configuration
+	@EnableWebMvc
+	@Import({ RequestBodyMapperConfiguration.class, BodyParamArgumentResolverConfiguration.class })
+	static class WebMvcConfiguration {
+	}
+
+	@Configuration
+	@Import({ WebMvcConfiguration.class, TestController.class })
+	static class TestConfiguration {
+	}
+
+	@RestController
+	static class TestController {
+
+		@PostMapping("/")
+		String handle(@BodyParam String name, @BodyParam Integer number) {
+			return name + number;
+		}
+	}
+
+	enum Color {
+		RED, GREEN
+	}
+
+	@RestController
+	static class InvalidDefaultValueController {
+
+		@PostMapping("/")
+		String handle(@BodyParam(path = "color", defaultValue = "BLUE") Color color) {
+			return color.name();
+		}
+	}
+}
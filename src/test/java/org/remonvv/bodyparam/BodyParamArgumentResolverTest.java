@@ -0,0 +1,597 @@
+package org.remonvv.bodyparam;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.remonvv.bodyparam.mappers.CborRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BodyParamArgumentResolverTest {
+
+	BodyParamArgumentResolver sut = new BodyParamArgumentResolver(new BodyParamReader(), ParseStrategy.TREE,
+			new BodyParamResolverSettings());
+
+	@Test
+	void resolveArgument_resolves_all_parameters_from_a_single_read_of_the_request_body() throws Exception {
+		ServletWebRequest webRequest = prepareJsonRequest("{\"name\":\"value\",\"parent\":{\"number\":42}}");
+
+		assertEquals("value", this.sut.resolveArgument(handlerParameter(0), null, webRequest, null));
+		assertEquals(42, this.sut.resolveArgument(handlerParameter(1), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_resolves_all_parameters_from_a_streamed_request_body() throws Exception {
+		BodyParamArgumentResolver streamingSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING, new BodyParamResolverSettings());
+		ServletWebRequest webRequest = prepareJsonRequest(
+				"{\"ignored\":[{}],\"name\":\"value\",\"parent\":{\"number\":42}}");
+
+		assertEquals("value", streamingSut.resolveArgument(handlerParameter(0), null, webRequest, null));
+		assertEquals(42, streamingSut.resolveArgument(handlerParameter(1), null, webRequest, null));
+		assertEquals(7, streamingSut.resolveArgument(handlerParameter(2), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_reads_the_first_occurrence_of_duplicate_fields_with_both_parse_strategies()
+			throws Exception {
+		BodyParamArgumentResolver streamingSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING, new BodyParamResolverSettings());
+
+		for (BodyParamArgumentResolver resolver : List.of(this.sut, streamingSut)) {
+			ServletWebRequest webRequest = prepareJsonRequest(
+					"{\"name\":\"first\",\"parent\":{\"number\":1,\"number\":2},\"name\":\"second\",\"parent\":{\"number\":3}}");
+
+			assertEquals("first", resolver.resolveArgument(handlerParameter(0), null, webRequest, null));
+			assertEquals(1, resolver.resolveArgument(handlerParameter(1), null, webRequest, null));
+		}
+	}
+
+	@Test
+	void resolveArgument_resolves_parameters_with_implicit_paths() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleImplicit", String.class, Integer.class);
+		ServletWebRequest webRequest = prepareJsonRequest("{\"name\":\"value\",\"number\":42}");
+
+		for (int i = 0; i < 2; i++) {
+			MethodParameter parameter = new SynthesizingMethodParameter(method, i);
+			parameter.initParameterNameDiscovery(new DefaultParameterNameDiscoverer());
+
+			assertEquals(i == 0 ? "value" : 42, this.sut.resolveArgument(parameter, null, webRequest, null));
+		}
+	}
+
+	@Test
+	void resolveArgument_resolves_parameters_from_xml_request_body() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(MediaType.APPLICATION_XML_VALUE);
+		request.setContent("<root><name>first\nsecond</name><parent><number>42</number></parent></root>"
+				.getBytes(StandardCharsets.UTF_8));
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+
+		assertEquals("first\nsecond", this.sut.resolveArgument(handlerParameter(0), null, webRequest, null));
+		assertEquals(42, this.sut.resolveArgument(handlerParameter(1), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_resolves_parameters_from_a_streamed_xml_request_body() throws Exception {
+		BodyParamArgumentResolver streamingSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING, new BodyParamResolverSettings());
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(MediaType.APPLICATION_XML_VALUE);
+		request.setContent("<root><ignored><a/><a/></ignored><parent><number>42</number></parent><name>value</name></root>"
+				.getBytes(StandardCharsets.UTF_8));
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+
+		assertEquals("value", streamingSut.resolveArgument(handlerParameter(0), null, webRequest, null));
+		assertEquals(42, streamingSut.resolveArgument(handlerParameter(1), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_resolves_parameters_from_cbor_request_body() throws Exception {
+		BodyParamArgumentResolver cborSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING, new BodyParamResolverSettings().requestBodyMappers(
+						List.of(new CborRequestBodyMapper())));
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType("application/cbor");
+		request.setContent(CBORMapper.builder().build()
+				.writeValueAsBytes(Map.of("name", "value", "parent", Map.of("number", 42))));
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+
+		assertEquals("value", cborSut.resolveArgument(handlerParameter(0), null, webRequest, null));
+		assertEquals(42, cborSut.resolveArgument(handlerParameter(1), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_resolves_array_element_paths() throws Exception {
+		String requestBody = "{\"items\":[{\"sku\":\"a\",\"quantity\":1},{\"quantity\":2},{\"sku\":\"c\",\"quantity\":3}]}";
+		BodyParamArgumentResolver streamingSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING, new BodyParamResolverSettings());
+
+		for (BodyParamArgumentResolver resolver : List.of(this.sut, streamingSut)) {
+			ServletWebRequest webRequest = prepareJsonRequest(requestBody);
+
+			assertEquals(List.of("a", "c"), resolver.resolveArgument(itemsHandlerParameter(0), null, webRequest, null));
+			assertEquals(2, resolver.resolveArgument(itemsHandlerParameter(1), null, webRequest, null));
+			assertArrayEquals(new int[] { 2, 3 },
+					(int[]) resolver.resolveArgument(itemsHandlerParameter(2), null, webRequest, null));
+		}
+	}
+
+	@Test
+	void resolveArgument_rejects_multi_valued_path_for_single_valued_parameter() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleInvalidItems", String.class);
+
+		assertThrows(IllegalArgumentException.class, () -> this.sut.resolveArgument(
+				new SynthesizingMethodParameter(method, 0), null, prepareJsonRequest("{}"), null));
+	}
+
+	@Test
+	void resolveArgument_rejects_request_body_exceeding_size_limit() throws Exception {
+		BodyParamArgumentResolver limitedSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.TREE,
+				new BodyParamResolverSettings().requestBodyLimits(new RequestBodyLimits(16, -1, -1)));
+
+		assertEquals("value", limitedSut.resolveArgument(handlerParameter(0), null,
+				prepareJsonRequest("{\"name\":\"value\"}"), null));
+
+		ResponseStatusException exception = assertThrows(ResponseStatusException.class,
+				() -> limitedSut.resolveArgument(handlerParameter(0), null,
+						prepareJsonRequest("{\"name\":\"value\",\"ignored\":1}"), null));
+
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exception.getStatus());
+	}
+
+	@Test
+	void resolveArgument_reads_request_bodies_shorter_than_their_content_length() throws Exception {
+		String largeValue = "a".repeat(200 * 1024);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/") {
+
+			@Override
+			public int getContentLength() {
+				return Integer.MAX_VALUE;
+			}
+		};
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(("{\"name\":\"" + largeValue + "\"}").getBytes(StandardCharsets.UTF_8));
+
+		assertEquals(largeValue,
+				this.sut.resolveArgument(handlerParameter(0), null, new ServletWebRequest(request), null));
+	}
+
+	@Test
+	void resolveArgument_rejects_request_body_exceeding_depth_and_token_limits() throws Exception {
+		for (ParseStrategy parseStrategy : ParseStrategy.values()) {
+			BodyParamArgumentResolver limitedSut = new BodyParamArgumentResolver(new BodyParamReader(),
+					parseStrategy, new BodyParamResolverSettings().requestBodyLimits(new RequestBodyLimits(-1, 2, 8)));
+
+			ResponseStatusException depthException = assertThrows(ResponseStatusException.class,
+					() -> limitedSut.resolveArgument(handlerParameter(0), null,
+							prepareJsonRequest("{\"ignored\":{\"a\":{\"b\":1}},\"name\":\"value\"}"), null));
+			ResponseStatusException tokenException = assertThrows(ResponseStatusException.class,
+					() -> limitedSut.resolveArgument(handlerParameter(0), null,
+							prepareJsonRequest("{\"ignored\":[1,2,3,4,5,6],\"name\":\"value\"}"), null));
+
+			assertEquals(HttpStatus.BAD_REQUEST, depthException.getStatus());
+			assertEquals(HttpStatus.BAD_REQUEST, tokenException.getStatus());
+		}
+	}
+
+	@Test
+	void resolveArgument_applies_limits_of_handler_method() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleLimited", String.class);
+		MethodParameter parameter = new SynthesizingMethodParameter(method, 0);
+
+		assertThrows(ResponseStatusException.class, () -> this.sut.resolveArgument(parameter, null,
+				prepareJsonRequest("{\"name\":\"value\",\"ignored\":1}"), null));
+	}
+
+	@Test
+	void resolveArgument_uses_configured_default_name_matching_mode() throws Exception {
+		BodyParamArgumentResolver ignoreCaseSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.TREE, new BodyParamResolverSettings().nameMatchingMode(NameMatchingMode.IGNORE_CASE));
+		Method method = TestController.class.getDeclaredMethod("handleExact", String.class);
+
+		assertEquals("value", ignoreCaseSut.resolveArgument(handlerParameter(0), null,
+				prepareJsonRequest("{\"NAME\":\"value\"}"), null));
+		assertThrows(ResponseStatusException.class,
+				() -> ignoreCaseSut.resolveArgument(new SynthesizingMethodParameter(method, 0), null,
+						prepareJsonRequest("{\"NAME\":\"value\"}"), null));
+	}
+
+	@Test
+	void resolveArgument_matches_names_with_custom_name_matchers() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleCustomNameMatching", String.class,
+				String.class);
+		List<NameMatcher> nameMatchers = List.of(new PrefixedNameMatcher("_"));
+		BodyParamArgumentResolver treeSut = new BodyParamArgumentResolver(new BodyParamReader(), ParseStrategy.TREE,
+				new BodyParamResolverSettings().nameMatchingMode(NameMatchingMode.EXACT).nameMatchers(nameMatchers));
+		BodyParamArgumentResolver streamingSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.STREAMING,
+				new BodyParamResolverSettings().nameMatchingMode(NameMatchingMode.EXACT).nameMatchers(nameMatchers));
+
+		for (BodyParamArgumentResolver resolver : List.of(treeSut, streamingSut)) {
+			ServletWebRequest webRequest = prepareJsonRequest("{\"_name\":\"value\",\"UserName\":\"user\"}");
+
+			assertEquals("value",
+					resolver.resolveArgument(new SynthesizingMethodParameter(method, 0), null, webRequest, null));
+			assertEquals("user",
+					resolver.resolveArgument(new SynthesizingMethodParameter(method, 1), null, webRequest, null));
+		}
+	}
+
+	@Test
+	void prepareHandlerMethods_compiles_valid_and_rejects_invalid_parameters() throws Exception {
+		TestController controller = new TestController();
+		HandlerMethod validHandlerMethod = new HandlerMethod(controller,
+				TestController.class.getDeclaredMethod("handleItems", List.class, int.class, int[].class));
+		HandlerMethod invalidHandlerMethod = new HandlerMethod(controller,
+				TestController.class.getDeclaredMethod("handleInvalidItems", String.class));
+
+		this.sut.prepareHandlerMethods(List.of(validHandlerMethod));
+
+		assertEquals(List.of("A-1"), this.sut.resolveArgument(validHandlerMethod.getMethodParameters()[0], null,
+				prepareJsonRequest("{\"items\":[{\"sku\":\"A-1\"}]}"), null));
+		assertThrows(IllegalStateException.class, () -> this.sut.prepareHandlerMethods(List.of(invalidHandlerMethod)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void resolveArgument_streams_records_of_batch_parameters() throws Exception {
+		Method recordsMethod = TestController.class.getDeclaredMethod("handleRecords", Stream.class);
+		Method rootRecordsMethod = TestController.class.getDeclaredMethod("handleRootRecords", Iterator.class);
+
+		Stream<Item> items = (Stream<Item>) this.sut.resolveArgument(new SynthesizingMethodParameter(recordsMethod, 0),
+				null, prepareJsonRequest("{\"ignored\":[1],\"batch\":{\"items\":[{\"sku\":\"A-1\"},"
+						+ "{\"sku\":\"B-7\",\"quantity\":2}]},\"after\":{}}"),
+				null);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(JsonRequestBodyMapper.APPLICATION_NDJSON.toString());
+		request.setContent("{\"sku\":\"A-1\"}\n{\"sku\":\"B-7\"}\n".getBytes(StandardCharsets.UTF_8));
+
+		Iterator<Item> rootItems = (Iterator<Item>) this.sut.resolveArgument(
+				new SynthesizingMethodParameter(rootRecordsMethod, 0), null, new ServletWebRequest(request), null);
+
+		assertEquals(List.of("A-1", "B-7"), items.map(item -> item.sku).collect(Collectors.toList()));
+		assertEquals("A-1", rootItems.next().sku);
+		assertEquals("B-7", rootItems.next().sku);
+		assertFalse(rootItems.hasNext());
+	}
+
+	@Test
+	void resolveArgument_rejects_batch_parameters_with_other_parameters() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleInvalidRecords", Stream.class, String.class);
+
+		assertThrows(IllegalArgumentException.class, () -> this.sut
+				.resolveArgument(new SynthesizingMethodParameter(method, 0), null, prepareJsonRequest("{}"), null));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void resolveArgument_defers_resolving_lazy_parameters_until_accessed() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleLazy", Supplier.class, Optional.class);
+
+		Supplier<Integer> invalidNumber = (Supplier<Integer>) this.sut.resolveArgument(
+				new SynthesizingMethodParameter(method, 0), null, prepareJsonRequest("{\"number\":"), null);
+		Supplier<Integer> number = (Supplier<Integer>) this.sut.resolveArgument(
+				new SynthesizingMethodParameter(method, 0), null, prepareJsonRequest("{\"number\":\"42\"}"), null);
+
+		assertThrows(IllegalArgumentException.class, invalidNumber::get);
+		assertEquals(42, number.get());
+		assertSame(number.get(), number.get());
+	}
+
+	@Test
+	void resolveArgument_wraps_values_of_optional_parameters() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleLazy", Supplier.class, Optional.class);
+		MethodParameter parameter = new SynthesizingMethodParameter(method, 1);
+
+		assertEquals(Optional.of("value"),
+				this.sut.resolveArgument(parameter, null, prepareJsonRequest("{\"name\":\"value\"}"), null));
+		assertEquals(Optional.empty(), this.sut.resolveArgument(parameter, null, prepareJsonRequest("{}"), null));
+	}
+
+	@Test
+	void resolveArgument_converts_scalar_values_of_wrapped_parameters_without_the_mapper() throws Exception {
+		BodyParamArgumentResolver scalarSut = new BodyParamArgumentResolver(new BodyParamReader(), ParseStrategy.TREE,
+				new BodyParamResolverSettings().requestBodyMappers(List.of(new JsonRequestBodyMapper() {
+
+					@Override
+					public Object convertValue(Type paramType, Object value) {
+						throw new AssertionError("Scalar value converted by the request body mapper");
+					}
+				})));
+		Method method = TestController.class.getDeclaredMethod("handleLazy", Supplier.class, Optional.class);
+		ServletWebRequest webRequest = prepareJsonRequest("{\"number\":42,\"name\":\"value\"}");
+
+		assertEquals(42, ((Supplier<?>) scalarSut.resolveArgument(new SynthesizingMethodParameter(method, 0), null,
+				webRequest, null)).get());
+		assertEquals(Optional.of("value"),
+				scalarSut.resolveArgument(new SynthesizingMethodParameter(method, 1), null, webRequest, null));
+	}
+
+	@Test
+	void resolveArgument_reuses_request_body_cached_by_request_wrappers() throws Exception {
+		String requestBody = "{\"name\":\"value\"}";
+		BodyParamCachingRequestWrapper resolvedFirst = new BodyParamCachingRequestWrapper(
+				prepareJsonRequest(requestBody).getRequest());
+		BodyParamCachingRequestWrapper readFirst = new BodyParamCachingRequestWrapper(
+				prepareJsonRequest(requestBody).getRequest());
+		ContentCachingRequestWrapper contentCaching = new ContentCachingRequestWrapper(
+				prepareJsonRequest(requestBody).getRequest());
+
+		assertEquals("value",
+				this.sut.resolveArgument(handlerParameter(0), null, new ServletWebRequest(resolvedFirst), null));
+		assertEquals(requestBody, new String(resolvedFirst.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+
+		ServletInputStream asyncInputStream = resolvedFirst.getInputStream();
+		ByteArrayOutputStream asyncRequestBody = new ByteArrayOutputStream();
+		asyncInputStream.setReadListener(new ReadListener() {
+			@Override
+			public void onDataAvailable() throws IOException {
+				while (asyncInputStream.isReady() && !asyncInputStream.isFinished())
+					asyncRequestBody.write(asyncInputStream.read());
+			}
+
+			@Override
+			public void onAllDataRead() {
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+		});
+		assertEquals(requestBody, asyncRequestBody.toString(StandardCharsets.UTF_8));
+
+		readFirst.getInputStream().readAllBytes();
+		contentCaching.getInputStream().readAllBytes();
+
+		assertEquals("value",
+				this.sut.resolveArgument(handlerParameter(0), null, new ServletWebRequest(readFirst), null));
+		assertEquals("value",
+				this.sut.resolveArgument(handlerParameter(0), null, new ServletWebRequest(contentCaching), null));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void requestBodyAdvice_shares_request_body_with_request_body_arguments() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleMixed", Map.class, String.class);
+		MethodParameter requestBodyParameter = new SynthesizingMethodParameter(method, 0);
+		MethodParameter bodyParamParameter = new SynthesizingMethodParameter(method, 1);
+		MappingJackson2HttpMessageConverter messageConverter = new MappingJackson2HttpMessageConverter();
+		BodyParamRequestBodyAdvice advice = new BodyParamRequestBodyAdvice(RequestBodyLimits.UNLIMITED,
+				() -> List.of(messageConverter));
+		Type targetType = requestBodyParameter.getGenericParameterType();
+
+		assertTrue(advice.supports(requestBodyParameter, targetType, MappingJackson2HttpMessageConverter.class));
+
+		try {
+			// @RequestBody argument resolved first
+			ServletWebRequest webRequest = prepareJsonRequest("{\"name\":\"value\"}");
+			RequestContextHolder.setRequestAttributes(webRequest);
+
+			HttpInputMessage inputMessage = advice.beforeBodyRead(new ServletServerHttpRequest(webRequest.getRequest()),
+					requestBodyParameter, targetType, MappingJackson2HttpMessageConverter.class);
+
+			assertEquals(Map.of("name", "value"), messageConverter.read(targetType, null, inputMessage));
+			assertEquals("value", this.sut.resolveArgument(bodyParamParameter, null, webRequest, null));
+
+			// @BodyParam argument resolved first
+			webRequest = prepareJsonRequest("{\"name\":\"value\"}");
+			RequestContextHolder.setRequestAttributes(webRequest);
+
+			assertEquals("value", this.sut.resolveArgument(bodyParamParameter, null, webRequest, null));
+			assertEquals(Map.of("name", "value"),
+					(Map<String, Object>) advice.handleEmptyBody(null,
+							new ServletServerHttpRequest(webRequest.getRequest()), requestBodyParameter, targetType,
+							MappingJackson2HttpMessageConverter.class));
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	@Test
+	void requestBodyAdvice_and_caching_request_wrapper_reject_request_bodies_exceeding_limits() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleMixed", Map.class, String.class);
+		MethodParameter requestBodyParameter = new SynthesizingMethodParameter(method, 0);
+		RequestBodyLimits requestBodyLimits = new RequestBodyLimits(8, -1, -1);
+		BodyParamRequestBodyAdvice advice = new BodyParamRequestBodyAdvice(requestBodyLimits, List::of);
+		MockHttpServletRequest request = (MockHttpServletRequest) prepareJsonRequest("{\"name\":\"value\"}")
+				.getRequest();
+
+		try {
+			RequestContextHolder.setRequestAttributes(new ServletWebRequest(request));
+
+			ResponseStatusException e = assertThrows(ResponseStatusException.class,
+					() -> advice.beforeBodyRead(new ServletServerHttpRequest(request), requestBodyParameter,
+							requestBodyParameter.getGenericParameterType(), MappingJackson2HttpMessageConverter.class));
+			assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+
+		// Request bodies of unknown length are rejected while they are read
+		MockHttpServletRequest chunkedRequest = new MockHttpServletRequest("POST", "/") {
+			@Override
+			public int getContentLength() {
+				return -1;
+			}
+
+			@Override
+			public long getContentLengthLong() {
+				return -1;
+			}
+		};
+		chunkedRequest.setContent("{\"name\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+		BodyParamCachingRequestWrapper cachingRequest = new BodyParamCachingRequestWrapper(chunkedRequest,
+				requestBodyLimits);
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class, cachingRequest::getInputStream);
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatus());
+	}
+
+	@Test
+	void resolveArgument_uses_default_value_for_missing_parameter() throws Exception {
+		assertEquals(7, this.sut.resolveArgument(handlerParameter(2), null, prepareJsonRequest("{}"), null));
+		assertEquals(8, this.sut.resolveArgument(handlerParameter(2), null, prepareJsonRequest("{\"count\":8}"), null));
+	}
+
+	@Test
+	void resolveArgument_rejects_unsupported_content_types() {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		request.setContent("name=value".getBytes(StandardCharsets.UTF_8));
+
+		assertThrows(HttpMediaTypeNotSupportedException.class,
+				() -> this.sut.resolveArgument(handlerParameter(0), null, new ServletWebRequest(request), null));
+	}
+
+	@Test
+	void resolveArgument_records_metrics() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		BodyParamArgumentResolver metricsSut = new BodyParamArgumentResolver(new BodyParamReader(),
+				ParseStrategy.TREE,
+				new BodyParamResolverSettings().metrics(new MicrometerBodyParamMetrics(meterRegistry)));
+		ServletWebRequest webRequest = prepareJsonRequest("{\"name\":\"value\"}");
+
+		metricsSut.resolveArgument(handlerParameter(0), null, webRequest, null);
+		metricsSut.resolveArgument(handlerParameter(2), null, webRequest, null);
+		assertThrows(ResponseStatusException.class,
+				() -> metricsSut.resolveArgument(handlerParameter(1), null, webRequest, null));
+
+		assertEquals(3, meterRegistry.get("bodyparam.resolve").tag("method", "TestController.handle")
+				.tag("media.type", "application/json").timer().count());
+		assertEquals(1, meterRegistry.get("bodyparam.read").timer().count());
+		assertEquals(1, meterRegistry.get("bodyparam.parse").timer().count());
+		assertEquals(1, meterRegistry.get("bodyparam.extract").timer().count());
+		assertEquals(1, meterRegistry.get("bodyparam.convert").timer().count());
+		assertEquals(1, meterRegistry.get("bodyparam.default.value").counter().count());
+		assertEquals(1, meterRegistry.get("bodyparam.missing.required").tag("name.matching.mode", "EXACT")
+				.counter().count());
+	}
+
+	private ServletWebRequest prepareJsonRequest(String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/");
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+		return new ServletWebRequest(request);
+	}
+
+	private MethodParameter handlerParameter(int index) throws NoSuchMethodException {
+		Method method = TestController.class.getDeclaredMethod("handle", String.class, Integer.class, Integer.class);
+
+		return new SynthesizingMethodParameter(method, index);
+	}
+
+	private MethodParameter itemsHandlerParameter(int index) throws NoSuchMethodException {
+		Method method = TestController.class.getDeclaredMethod("handleItems", List.class, int.class, int[].class);
+
+		return new SynthesizingMethodParameter(method, index);
+	}
+
+	static class TestController {
+
+		void handle(@BodyParam("name") String name, @BodyParam("parent.number") Integer number,
+				@BodyParam(path = "count", defaultValue = "7") Integer count) {
+		}
+
+		void handleImplicit(@BodyParam String name, @BodyParam Integer number) {
+		}
+
+		void handleItems(@BodyParam("items[*].sku") List<String> skus, @BodyParam("items[1].quantity") int quantity,
+				@BodyParam("items[1:].quantity") int[] quantities) {
+		}
+
+		void handleInvalidItems(@BodyParam("items[*].sku") String skus) {
+		}
+
+		@BodyParamLimits(maxBodySize = 16)
+		void handleLimited(@BodyParam("name") String name) {
+		}
+
+		@NameMatching(NameMatchingMode.EXACT)
+		void handleExact(@BodyParam("name") String name) {
+		}
+
+		void handleRecords(@BodyParam("batch.items") Stream<Item> items) {
+		}
+
+		void handleRootRecords(@BodyParam("[*]") Iterator<Item> items) {
+		}
+
+		void handleInvalidRecords(@BodyParam("items") Stream<Item> items, @BodyParam("name") String name) {
+		}
+
+		void handleLazy(@BodyParam("number") Supplier<Integer> number, @BodyParam("name") Optional<String> name) {
+		}
+
+		void handleCustomNameMatching(@BodyParam(path = "name", nameMatcher = PrefixedNameMatcher.class) String name,
+				@BodyParam(path = "user_name", nameMatchingMode = NameMatchingMode.IGNORE_CASE_FORMAT) String userName) {
+		}
+
+		void handleMixed(@RequestBody Map<String, Object> body, @BodyParam("name") String name) {
+		}
+	}
+
+	static class PrefixedNameMatcher implements NameMatcher {
+
+		private final String prefix;
+
+		PrefixedNameMatcher(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public String normalize(String name) {
+			return name.startsWith(this.prefix) ? name.substring(this.prefix.length()) : name;
+		}
+	}
+
+	static class Item {
+
+		public String sku;
+
+		public int quantity;
+	}
+}
@@ -5,14 +5,28 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
+import org.remonvv.bodyparam.BodyParamReader.BoundValue;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 public class BodyParamReaderTest {
 
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
 	BodyParamReader sut = new BodyParamReader();
 
 	@Test
@@ -87,6 +101,19 @@ public class BodyParamReaderTest {
 		assertEquals(value, returned.get());
 	}
 
+	@Test
+	void readParam_returns_correct_value_for_relaxed_name_matching() {
+		Object value = "value";
+		Map<String, Object> requestBodyMap = Map.of("other", 1, "Parent_Name", Map.of("CHILD", value));
+
+		assertEquals(Optional.of(value), this.sut.readBodyParam("parent.child", value.getClass(), "",
+				NameMatchingMode.IGNORE_CASE, prepareRequestBodyMapper(Map.of("Parent", Map.of("CHILD", value)))));
+		assertEquals(Optional.of(value), this.sut.readBodyParam("parentName.child", value.getClass(), "",
+				NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC, prepareRequestBodyMapper(requestBodyMap)));
+		assertFalse(this.sut.readBodyParam("parentName.child", value.getClass(), "",
+				NameMatchingMode.IGNORE_CASE, prepareRequestBodyMapper(requestBodyMap)).isPresent());
+	}
+
 	@Test
 	void readParam_returns_nothing_for_wrong_multi_part_path() {
 		String parentPath = "parent";
@@ -111,6 +138,165 @@ public class BodyParamReaderTest {
 		assertFalse(returned.isPresent());
 	}
 
+	@Test
+	void readBodyParams_reads_all_parameters_in_one_traversal() {
+		CompiledBodyParam child = compileBodyParam("parent.child");
+		CompiledBodyParam parent = compileBodyParam("parent");
+		CompiledBodyParam missing = compileBodyParam("parent.missing");
+		Map<String, Object> requestBodyMap = Map.of("parent", Map.of("child", "value"), "other", 1);
+
+		Map<CompiledBodyParam, Object> values = this.sut
+				.readBodyParams(new BodyParamPathTrie(List.of(child, parent, missing)), requestBodyMap);
+
+		assertEquals(Map.of(child, "value", parent, Map.of("child", "value")), values);
+	}
+
+	@Test
+	void compileParamPath_compiles_array_element_selectors() {
+		assertEquals(List.of(BodyParamPathSegment.name("items"), BodyParamPathSegment.index(0),
+				BodyParamPathSegment.slice(null, null), BodyParamPathSegment.name("sku"),
+				BodyParamPathSegment.slice(1, 3), BodyParamPathSegment.slice(2, null)),
+				this.sut.compileParamPath("items[0][*].sku[1:3][2:]"));
+	}
+
+	@Test
+	void compileParamPath_errors_if_array_element_selector_is_invalid() {
+		for (String paramPath : List.of("[0]", "items[", "items]", "items[0]x", "items[-1]", "items[a]", "items[3:1]",
+				"items.[0]", "items[2147483647]", "items[2147483648]"))
+			assertThrows(IllegalArgumentException.class, () -> this.sut.compileParamPath(paramPath), paramPath);
+	}
+
+	@Test
+	void readBodyParams_reads_array_elements_in_a_single_traversal() throws IOException {
+		String requestBody = "{\"orders\":[{\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\"}]},{\"items\":[{\"sku\":\"c\"}]}],"
+				+ "\"single\":{\"sku\":\"d\"}}";
+		CompiledBodyParam allSkus = compileBodyParam("orders[*].items[*].sku");
+		CompiledBodyParam firstSku = compileBodyParam("orders[0].items[1].sku");
+		CompiledBodyParam lastOrders = compileBodyParam("orders[1:]");
+		CompiledBodyParam singleSku = compileBodyParam("single[*].sku");
+		CompiledBodyParam missing = compileBodyParam("orders[5].items[*].sku");
+		BodyParamPathTrie trie = new BodyParamPathTrie(List.of(allSkus, firstSku, lastOrders, singleSku, missing));
+		Map<CompiledBodyParam, Object> expectedValues = Map.of(allSkus, List.of("a", "b", "c"), firstSku, "b",
+				lastOrders, List.of(Map.of("items", List.of(Map.of("sku", "c")))), singleSku, List.of("d"));
+
+		assertEquals(expectedValues, this.sut.readBodyParams(trie,
+				JSON_MAPPER.readValue(requestBody, new TypeReference<Map<String, Object>>() {})));
+
+		try (JsonParser parser = JSON_MAPPER.createParser(requestBody)) {
+			assertEquals(expectedValues, this.sut.streamBodyParams(parser, trie));
+		}
+	}
+
+	@Test
+	void streamBodyParams_stops_reading_once_selected_array_elements_are_found() throws IOException {
+		String requestBody = "{\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\"}],\"other\":1,\"not valid json";
+		CompiledBodyParam skus = compileBodyParam("items[*].sku");
+
+		try (JsonParser parser = JSON_MAPPER.createParser(requestBody)) {
+			assertEquals(Map.of(skus, List.of("a", "b")),
+					this.sut.streamBodyParams(parser, new BodyParamPathTrie(List.of(skus))));
+		}
+	}
+
+	@Test
+	void streamBodyParams_reads_repeated_xml_elements_as_array_elements() throws IOException {
+		String requestBody = "<root><item><sku>a</sku></item><item><sku>b</sku></item><item><sku>c</sku></item></root>";
+		XmlRequestBodyMapper requestBodyMapper = new XmlRequestBodyMapper();
+		CompiledBodyParam skus = compileBodyParam("item[*].sku");
+		CompiledBodyParam secondSku = compileBodyParam("item[1].sku");
+
+		try (JsonParser parser = requestBodyMapper.createParser(requestBody.getBytes(StandardCharsets.UTF_8))) {
+			assertEquals(Map.of(skus, List.of("a", "b", "c"), secondSku, "b"), this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(skus, secondSku)), requestBodyMapper));
+		}
+
+		assertEquals(Map.of(skus, List.of("a", "b", "c"), secondSku, "b"),
+				this.sut.readBodyParams(new BodyParamPathTrie(List.of(skus, secondSku)),
+						requestBodyMapper.mapRequestBody(requestBody)));
+	}
+
+	@Test
+	void streamBodyParams_only_decodes_values_on_parameter_paths() throws IOException {
+		String requestBody = "{\"skipped\":{\"a\":[1,2,3]},\"parent\":{\"other\":1,\"child\":\"value\"},\"single\":2}";
+		CompiledBodyParam child = compileBodyParam("parent.child");
+		CompiledBodyParam single = compileBodyParam("single");
+
+		try (JsonParser parser = JSON_MAPPER.createParser(requestBody)) {
+			Map<CompiledBodyParam, Object> values = this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(child, single)));
+
+			assertEquals(Map.of(child, "value", single, 2), values);
+		}
+	}
+
+	@Test
+	void streamBodyParams_stops_reading_once_all_parameters_are_found() throws IOException {
+		String requestBody = "{\"single\":\"value\",\"not valid json";
+		CompiledBodyParam single = compileBodyParam("single");
+
+		try (JsonParser parser = JSON_MAPPER.createParser(requestBody)) {
+			Map<CompiledBodyParam, Object> values = this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(single)));
+
+			assertEquals(Map.of(single, "value"), values);
+		}
+	}
+
+	@Test
+	void streamBodyParams_binds_values_directly_to_the_parameter_type() throws IOException {
+		String requestBody = "{\"numbers\":[1,2,3],\"parent\":{\"child\":\"value\"}}";
+		CompiledBodyParam numbers = compileBodyParam("numbers",
+				TypeFactory.defaultInstance().constructCollectionType(List.class, Long.class));
+		CompiledBodyParam child = compileBodyParam("parent.child");
+
+		try (JsonParser parser = JSON_MAPPER.createParser(requestBody)) {
+			Map<CompiledBodyParam, Object> values = this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(numbers, child)), new JsonRequestBodyMapper(JSON_MAPPER));
+
+			assertEquals(List.of(1L, 2L, 3L), ((BoundValue) values.get(numbers)).getValue());
+			assertEquals("value", ((BoundValue) values.get(child)).getValue());
+		}
+	}
+
+	@Test
+	void streamBodyParams_reads_only_the_addressed_xml_elements() throws IOException {
+		String requestBody = "<root><skipped><a>1</a><a>2</a></skipped><parent><child>value</child></parent>"
+				+ "<single>2</single><single>3</single><after>4</after><not valid xml";
+		XmlRequestBodyMapper requestBodyMapper = new XmlRequestBodyMapper();
+		CompiledBodyParam child = compileBodyParam("parent.child",
+				TypeFactory.defaultInstance().constructType(String.class));
+		CompiledBodyParam single = compileBodyParam("single");
+
+		try (JsonParser parser = requestBodyMapper.createParser(requestBody.getBytes(StandardCharsets.UTF_8))) {
+			Map<CompiledBodyParam, Object> values = this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(child, single)), requestBodyMapper);
+
+			assertEquals("value", ((BoundValue) values.get(child)).getValue());
+			assertEquals(List.of("2", "3"), values.get(single));
+		}
+	}
+
+	@Test
+	void streamBodyParams_errors_if_a_bound_xml_element_is_repeated() throws IOException {
+		String requestBody = "<root><single>2</single><single>3</single></root>";
+		XmlRequestBodyMapper requestBodyMapper = new XmlRequestBodyMapper();
+		CompiledBodyParam single = compileBodyParam("single", TypeFactory.defaultInstance().constructType(String.class));
+
+		try (JsonParser parser = requestBodyMapper.createParser(requestBody.getBytes(StandardCharsets.UTF_8))) {
+			assertThrows(IllegalArgumentException.class, () -> this.sut.streamBodyParams(parser,
+					new BodyParamPathTrie(List.of(single)), requestBodyMapper));
+		}
+	}
+
+	private CompiledBodyParam compileBodyParam(String paramPath) {
+		return compileBodyParam(paramPath, TypeFactory.defaultInstance().constructType(Object.class));
+	}
+
+	private CompiledBodyParam compileBodyParam(String paramPath, JavaType paramType) {
+		return new CompiledBodyParam(null, paramPath, this.sut.compileParamPath(paramPath), NameMatchingMode.EXACT,
+				paramType, Optional.empty(), true);
+	}
+
 	private RequestBodyMapper prepareRequestBodyMapper() {
 		return prepareRequestBodyMapper(Map.of());
 	}
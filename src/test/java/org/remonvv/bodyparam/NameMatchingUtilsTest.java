@@ -1,6 +1,9 @@
 package org.remonvv.bodyparam;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
@@ -96,4 +99,80 @@ public class NameMatchingUtilsTest {
 
 		assertTrue(NameMatchingUtils.isNameMatching(a, b, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
 	}
+
+	@Test
+	void isNameMatching_does_not_match_prefixes_in_ignore_case_and_non_alpha_numberic_mode() {
+
+		String a = "non_alpha";
+		String b = "nonAlphaNumeric";
+
+		assertFalse(NameMatchingUtils.isNameMatching(a, b, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+		assertFalse(NameMatchingUtils.isNameMatching(b, a, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+	}
+
+	@Test
+	void isNameMatching_matches_leading_and_trailing_non_alpha_numeric_differences_in_ignore_case_and_non_alpha_numberic_mode() {
+
+		String a = "__Non-Alpha.Numeric__";
+		String b = "nonalphanumeric";
+
+		assertTrue(NameMatchingUtils.isNameMatching(a, b, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+		assertTrue(NameMatchingUtils.isNameMatching(b, a, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+	}
+
+	@Test
+	void normalizeName_returns_already_normalized_names_as_is() {
+
+		String a = "nonalphanumeric";
+
+		assertSame(a, NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE));
+		assertSame(a, NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+	}
+
+	@Test
+	void normalizeName_is_equal_for_matching_names_in_every_mode() {
+
+		String a = "Non_Alpha_Numeric";
+		String b = "nonAlphaNumeric";
+
+		assertEquals(NameMatchingUtils.normalizeName(a, NameMatchingMode.EXACT),
+				NameMatchingUtils.normalizeName(a, NameMatchingMode.EXACT));
+		assertEquals(NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE),
+				NameMatchingUtils.normalizeName(a.toUpperCase(), NameMatchingMode.IGNORE_CASE));
+		assertEquals(NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC),
+				NameMatchingUtils.normalizeName(b, NameMatchingMode.IGNORE_CASE_AND_NON_ALPHA_NUMERIC));
+	}
+
+	@Test
+	void normalizeName_differs_for_non_matching_names() {
+
+		String a = "Non_Alpha_Numeric";
+		String b = "nonAlphaNumeric";
+
+		assertNotEquals(NameMatchingUtils.normalizeName(a, NameMatchingMode.EXACT),
+				NameMatchingUtils.normalizeName(a.toUpperCase(), NameMatchingMode.EXACT));
+		assertNotEquals(NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE),
+				NameMatchingUtils.normalizeName(b, NameMatchingMode.IGNORE_CASE));
+	}
+
+	@Test
+	void isNameMatching_matches_case_format_differences_in_ignore_case_format_mode() {
+
+		String a = "customerId";
+
+		for (String b : new String[] { "customer_id", "CustomerId", "CUSTOMER_ID", "customer-id", "customerID" })
+			assertTrue(NameMatchingUtils.isNameMatching(a, b, NameMatchingMode.IGNORE_CASE_FORMAT));
+
+		assertFalse(NameMatchingUtils.isNameMatching(a, "customerid", NameMatchingMode.IGNORE_CASE_FORMAT));
+		assertFalse(NameMatchingUtils.isNameMatching(a, "customer.id", NameMatchingMode.IGNORE_CASE_FORMAT));
+	}
+
+	@Test
+	void normalizeName_returns_snake_case_names_as_is_in_ignore_case_format_mode() {
+
+		String a = "customer_id";
+
+		assertSame(a, NameMatchingUtils.normalizeName(a, NameMatchingMode.IGNORE_CASE_FORMAT));
+		assertEquals("http_server_id", NameMatchingUtils.normalizeName("HTTPServerId", NameMatchingMode.IGNORE_CASE_FORMAT));
+	}
 }
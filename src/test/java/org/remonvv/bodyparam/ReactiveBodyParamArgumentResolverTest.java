@@ -0,0 +1,134 @@
+package org.remonvv.bodyparam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.SynthesizingMethodParameter;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+
+public class ReactiveBodyParamArgumentResolverTest {
+
+	ReactiveBodyParamArgumentResolver sut = new ReactiveBodyParamArgumentResolver(new BodyParamReader(),
+			new BodyParamResolverSettings());
+
+	@Test
+	void resolveArgument_resolves_all_parameters_from_a_request_body_arriving_in_chunks() throws Exception {
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_JSON, "{\"ignored\":[{}],\"na",
+				"me\":\"value\",\"parent\":{\"num", "ber\":42}}");
+
+		assertEquals("value", this.sut.resolveArgument(handlerParameter(0), null, exchange).block());
+		assertEquals(42, this.sut.resolveArgument(handlerParameter(1), null, exchange).block());
+		assertEquals(7, this.sut.resolveArgument(handlerParameter(2), null, exchange).block());
+	}
+
+	@Test
+	void resolveArgument_reads_the_first_occurrence_of_duplicate_fields() throws Exception {
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_JSON, "{\"name\":\"first\",\"na",
+				"me\":{\"nested\":[1]},\"parent\":{\"number\":42,\"num", "ber\":43}}");
+
+		assertEquals("first", this.sut.resolveArgument(handlerParameter(0), null, exchange).block());
+		assertEquals(42, this.sut.resolveArgument(handlerParameter(1), null, exchange).block());
+	}
+
+	@Test
+	void resolveArgument_resolves_parameters_from_xml_request_body() throws Exception {
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_XML, "<root><name>value</na",
+				"me><parent><number>42</number></parent></root>");
+
+		assertEquals("value", this.sut.resolveArgument(handlerParameter(0), null, exchange).block());
+		assertEquals(42, this.sut.resolveArgument(handlerParameter(1), null, exchange).block());
+	}
+
+	@Test
+	void resolveArgument_completes_empty_for_missing_optional_parameter() throws Exception {
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_JSON, "{}");
+
+		assertNull(this.sut.resolveArgument(handlerParameter(3), null, exchange).block());
+	}
+
+	@Test
+	void resolveArgument_rejects_request_body_exceeding_limits_while_it_arrives() throws Exception {
+		ReactiveBodyParamArgumentResolver limitedSut = new ReactiveBodyParamArgumentResolver(new BodyParamReader(),
+				new BodyParamResolverSettings().requestBodyLimits(new RequestBodyLimits(16, 2, -1)));
+		MockServerWebExchange deepExchange = prepareExchange(MediaType.APPLICATION_JSON, "{\"a\":{\"b\":{",
+				"\"c\":1}}}");
+		MockServerWebExchange largeExchange = prepareExchange(MediaType.APPLICATION_JSON, "{\"name\":\"value\"",
+				",\"ignored\":\"value\"}");
+
+		ResponseStatusException depthException = assertThrows(ResponseStatusException.class,
+				() -> limitedSut.resolveArgument(handlerParameter(0), null, deepExchange).block());
+		ResponseStatusException sizeException = assertThrows(ResponseStatusException.class,
+				() -> limitedSut.resolveArgument(handlerParameter(0), null, largeExchange).block());
+
+		assertEquals(HttpStatus.BAD_REQUEST, depthException.getStatus());
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, sizeException.getStatus());
+	}
+
+	@Test
+	void resolveArgument_rejects_batch_parameters() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleRecords", Stream.class);
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_JSON, "{}");
+
+		assertThrows(IllegalArgumentException.class,
+				() -> this.sut.resolveArgument(new SynthesizingMethodParameter(method, 0), null, exchange));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void resolveArgument_resolves_lazy_and_optional_parameters() throws Exception {
+		Method method = TestController.class.getDeclaredMethod("handleLazy", Supplier.class, Optional.class);
+		MockServerWebExchange exchange = prepareExchange(MediaType.APPLICATION_JSON, "{\"number\":\"42\"}");
+
+		Supplier<Integer> number = (Supplier<Integer>) this.sut
+				.resolveArgument(new SynthesizingMethodParameter(method, 0), null, exchange).block();
+		Object name = this.sut.resolveArgument(new SynthesizingMethodParameter(method, 1), null, exchange).block();
+
+		assertEquals(42, number.get());
+		assertEquals(Optional.empty(), name);
+	}
+
+	private MockServerWebExchange prepareExchange(MediaType mediaType, String... bodyChunks) {
+		Flux<DataBuffer> body = Flux.fromArray(bodyChunks)
+				.map(chunk -> new DefaultDataBufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+
+		return MockServerWebExchange.from(MockServerHttpRequest.post("/").contentType(mediaType).body(body));
+	}
+
+	private MethodParameter handlerParameter(int index) throws NoSuchMethodException {
+		Method method = TestController.class.getDeclaredMethod("handle", String.class, Integer.class, Integer.class,
+				String.class);
+
+		return new SynthesizingMethodParameter(method, index);
+	}
+
+	static class TestController {
+
+		void handle(@BodyParam("name") String name, @BodyParam("parent.number") Integer number,
+				@BodyParam(path = "count", defaultValue = "7") Integer count,
+				@BodyParam(path = "optional", required = false) String optional) {
+		}
+
+		void handleRecords(@BodyParam("items") Stream<String> items) {
+		}
+
+		void handleLazy(@BodyParam("number") Supplier<Integer> number, @BodyParam("name") Optional<String> name) {
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package org.remonvv.bodyparam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.remonvv.bodyparam.mappers.JsonRequestBodyMapper;
+import org.remonvv.bodyparam.mappers.XmlRequestBodyMapper;
+import org.springframework.http.MediaType;
+
+public class RequestBodyMapperRegistryTest {
+
+	JsonRequestBodyMapper jsonMapper = new JsonRequestBodyMapper();
+	XmlRequestBodyMapper xmlMapper = new XmlRequestBodyMapper();
+
+	RequestBodyMapperRegistry sut = new RequestBodyMapperRegistry(List.of(this.jsonMapper, this.xmlMapper));
+
+	@Test
+	void select_matches_compatible_media_types() {
+		assertSame(this.jsonMapper, this.sut.select("application/json").getRequestBodyMapper());
+		assertSame(this.jsonMapper, this.sut.select("application/json;charset=UTF-8").getRequestBodyMapper());
+		assertSame(this.xmlMapper, this.sut.select("text/xml").getRequestBodyMapper());
+	}
+
+	@Test
+	void select_matches_structured_syntax_suffixes() {
+		assertSame(this.jsonMapper, this.sut.select("application/vnd.example+json").getRequestBodyMapper());
+		assertSame(this.xmlMapper, this.sut.select("application/atom+xml").getRequestBodyMapper());
+	}
+
+	@Test
+	void select_returns_the_supported_media_type_that_matched() {
+		assertEquals(MediaType.APPLICATION_JSON, this.sut.select("application/json;charset=UTF-8").getMediaType());
+		assertEquals(MediaType.APPLICATION_JSON, this.sut.select("application/vnd.random+json;x=1").getMediaType());
+		assertEquals(MediaType.TEXT_XML, this.sut.select("text/xml").getMediaType());
+	}
+
+	@Test
+	void select_returns_null_for_unsupported_content_types() {
+		assertNull(this.sut.select(null));
+		assertNull(this.sut.select("text/plain"));
+		assertNull(this.sut.select("*/*"));
+		assertNull(this.sut.select("not a media type"));
+	}
+
+	@Test
+	void select_caches_selections_per_content_type() {
+		assertSame(this.sut.select("application/json"), this.sut.select("application/json"));
+	}
+}
@@ -0,0 +1,73 @@
+package org.remonvv.bodyparam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+public class ScalarConvertersTest {
+
+	enum Color {
+		RED, GREEN
+	}
+
+	enum AnnotatedColor {
+		@JsonProperty("red")
+		RED
+	}
+
+	@Test
+	void stringToDefaultValue_supports_primitives() {
+		assertEquals(7, AbstractBodyParamArgumentResolver.stringToDefaultValue(int.class, "7"));
+		assertEquals(7L, AbstractBodyParamArgumentResolver.stringToDefaultValue(long.class, "7"));
+		assertEquals(true, AbstractBodyParamArgumentResolver.stringToDefaultValue(boolean.class, "true"));
+		assertEquals(1.5, AbstractBodyParamArgumentResolver.stringToDefaultValue(double.class, "1.5"));
+		assertThrows(IllegalArgumentException.class,
+				() -> AbstractBodyParamArgumentResolver.stringToDefaultValue(List.class, "[]"));
+	}
+
+	@Test
+	void getConverter_caches_enum_converters() {
+		ScalarConverter converter = ScalarConverters.getConverter(Color.class);
+
+		assertSame(converter, ScalarConverters.getConverter(Color.class));
+		assertEquals(Color.GREEN, converter.fromString("green"));
+		assertEquals(Color.RED, converter.fromValue("RED"));
+		assertNull(converter.fromValue("red"));
+		assertThrows(IllegalArgumentException.class, () -> converter.fromString("blue"));
+	}
+
+	@Test
+	void fromValue_leaves_values_that_need_coercion_to_the_mapper() {
+		assertEquals(42L, ScalarConverters.getConverter(long.class).fromValue(42));
+		assertNull(ScalarConverters.getConverter(int.class).fromValue("42"));
+		assertNull(ScalarConverters.getConverter(int.class).fromValue(1L << 40));
+		assertNull(ScalarConverters.getConverter(AnnotatedColor.class).fromValue("RED"));
+	}
+
+	@Test
+	void fromToken_reads_scalar_tokens() throws IOException {
+		try (JsonParser parser = JsonMapper.builder().build().createParser("[42,\"42\",4.5,true]")) {
+			parser.nextToken();
+
+			parser.nextToken();
+			assertEquals(42, ScalarConverters.getConverter(int.class).fromToken(parser));
+			parser.nextToken();
+			assertNull(ScalarConverters.getConverter(Integer.class).fromToken(parser));
+			assertEquals("42", ScalarConverters.getConverter(String.class).fromToken(parser));
+			parser.nextToken();
+			assertEquals(4.5, ScalarConverters.getConverter(double.class).fromToken(parser));
+			parser.nextToken();
+			assertEquals(true, ScalarConverters.getConverter(Boolean.class).fromToken(parser));
+		}
+	}
+}
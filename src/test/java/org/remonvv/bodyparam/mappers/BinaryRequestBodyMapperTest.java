@@ -0,0 +1,57 @@
+package org.remonvv.bodyparam.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+public class BinaryRequestBodyMapperTest {
+
+	private static final Map<String, Object> REQUEST_BODY = Map.of("name", "value", "parent",
+			Map.of("numbers", List.of(1, 2, 3)));
+
+	@Test
+	void mapRequestBody_decodes_cbor() throws IOException {
+		assertDecodes(new CborRequestBodyMapper(), CBORMapper.builder().build());
+	}
+
+	@Test
+	void mapRequestBody_decodes_smile() throws IOException {
+		assertDecodes(new SmileRequestBodyMapper(), SmileMapper.builder().build());
+	}
+
+	@Test
+	void mapRequestBody_decodes_message_pack() throws IOException {
+		assertDecodes(new MessagePackRequestBodyMapper(), new ObjectMapper(new MessagePackFactory()));
+	}
+
+	private void assertDecodes(AbstractJacksonRequestBodyMapper sut, ObjectMapper encoder) throws IOException {
+		byte[] requestBody = encoder.writeValueAsBytes(REQUEST_BODY);
+
+		assertEquals(REQUEST_BODY, sut.mapRequestBody(requestBody));
+
+		try (JsonParser parser = sut.createParser(requestBody)) {
+			assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+
+			while (!"parent".equals(parser.nextFieldName()))
+				parser.skipChildren();
+
+			parser.nextToken();
+			assertEquals("numbers", parser.nextFieldName());
+			parser.nextToken();
+			assertEquals(List.of(1L, 2L, 3L), sut.readValue(parser,
+					TypeFactory.defaultInstance().constructCollectionType(List.class, Long.class)));
+		}
+	}
+}
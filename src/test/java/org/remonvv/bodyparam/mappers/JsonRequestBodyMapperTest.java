@@ -0,0 +1,50 @@
+package org.remonvv.bodyparam.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+public class JsonRequestBodyMapperTest {
+
+	private static final Type STRING_LIST_TYPE = TypeFactory.defaultInstance().constructCollectionType(List.class,
+			String.class);
+
+	@Test
+	void convertValue_uses_the_configured_object_mapper() {
+		JsonRequestBodyMapper sut = new JsonRequestBodyMapper(
+				JsonMapper.builder().enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY).build());
+
+		assertEquals(List.of("value"), sut.convertValue(STRING_LIST_TYPE, "value"));
+		assertEquals(List.of("a", "b"), sut.convertValue(STRING_LIST_TYPE, List.of("a", "b")));
+	}
+
+	@Test
+	void convertValue_converts_nested_values() {
+		JsonRequestBodyMapper sut = new JsonRequestBodyMapper();
+
+		assertEquals(42L, sut.convertValue(Long.class, 42));
+		assertEquals(Map.of("key", 1.5), sut.convertValue(Map.class, Map.of("key", 1.5)));
+		assertThrows(IllegalArgumentException.class, () -> sut.convertValue(Integer.class, Map.of("key", 1)));
+	}
+
+	@Test
+	void mapRequestBody_reads_the_first_occurrence_of_duplicate_fields() throws Exception {
+		JsonRequestBodyMapper sut = new JsonRequestBodyMapper();
+		String requestBody = "{\"a\":{\"b\":1,\"c\":[{\"d\":2,\"d\":3}],\"b\":{\"e\":4}},\"a\":5,\"f\":6}";
+
+		assertEquals(Map.of("a", Map.of("b", 1, "c", List.of(Map.of("d", 2))), "f", 6),
+				sut.mapRequestBody(requestBody));
+		assertEquals(Map.of("a", Map.of("b", 1, "c", List.of(Map.of("d", 2))), "f", 6),
+				sut.mapRequestBody(requestBody.getBytes(StandardCharsets.UTF_8)));
+	}
+}
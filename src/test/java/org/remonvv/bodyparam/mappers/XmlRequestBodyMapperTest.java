@@ -0,0 +1,40 @@
+package org.remonvv.bodyparam.mappers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class XmlRequestBodyMapperTest {
+
+	XmlRequestBodyMapper sut = new XmlRequestBodyMapper();
+
+	@Test
+	void mapRequestBody_collects_repeated_elements_in_a_list() {
+		String requestBody = "<order><id>5</id><item><sku>a</sku></item><item><sku>b</sku></item>"
+				+ "<tag>x</tag><tag>y</tag><tag>z</tag></order>";
+
+		assertEquals(Map.of("id", "5", "item", List.of(Map.of("sku", "a"), Map.of("sku", "b")), "tag",
+				List.of("x", "y", "z")), this.sut.mapRequestBody(requestBody.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void mapRequestBody_decodes_empty_root_element() {
+		assertEquals(Map.of(), this.sut.mapRequestBody("<order/>"));
+	}
+
+	@Test
+	void convertValue_converts_single_element_to_list() {
+		assertEquals(List.of("x"), this.sut.convertValue(List.class, "x"));
+	}
+
+	@Test
+	void mapRequestBody_errors_if_request_body_is_not_valid_xml() {
+		assertThrows(IllegalArgumentException.class, () -> this.sut.mapRequestBody("<order><id>5</order>"));
+		assertThrows(IllegalArgumentException.class, () -> this.sut.mapRequestBody("<order>text</order>"));
+	}
+}